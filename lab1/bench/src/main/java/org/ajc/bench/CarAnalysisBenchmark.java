@@ -0,0 +1,34 @@
+package org.ajc.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code CarAnalysis} in exact and sketch-based modes.
+ * The analysis is a single-threaded stage, so the {@code parallel} parameter of {@link CarData} does not change it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector", "-Xmx4g"})
+public class CarAnalysisBenchmark {
+    private static final double RANK_ERROR = 0.01;
+
+    @Benchmark
+    public Object analyze(CarData data) {
+        return Lab1.analyze(Lab1.analysis(data.cars));
+    }
+
+    @Benchmark
+    public Object analyzeApproximate(CarData data) {
+        return Lab1.analyzeApproximate(Lab1.analysis(data.cars), RANK_ERROR);
+    }
+}
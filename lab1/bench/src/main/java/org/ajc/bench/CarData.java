@@ -0,0 +1,39 @@
+package org.ajc.bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Shared benchmark input: a reproducible list of generated cars of the requested size,
+ * built once per trial so that only the stage under test is measured.
+ */
+@State(Scope.Benchmark)
+public class CarData {
+    static final long SEED = 2402;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    List<Object> cars;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        cars = Lab1.generateCars(size, SEED).toList();
+    }
+
+    /**
+     * Streams the cars sequentially or in parallel, depending on the benchmark mode.
+     */
+    Stream<Object> stream() {
+        return parallel ? cars.parallelStream() : cars.stream();
+    }
+}
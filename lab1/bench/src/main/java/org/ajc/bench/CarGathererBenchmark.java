@@ -0,0 +1,42 @@
+package org.ajc.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the skip-N-of-brand and limit step done by {@code CarGatherer}, both over stored cars
+ * and fused with generation as in {@code Main}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector", "-Xmx4g"})
+public class CarGathererBenchmark {
+    private static final int SKIP_COUNT = 100;
+    private static final String BRAND_TO_SKIP = "BMW";
+
+    @Benchmark
+    public List<Object> gather(CarData data) {
+        return data.stream()
+                .gather(Lab1.carGatherer(SKIP_COUNT, BRAND_TO_SKIP, data.size / 2))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Object> generateAndGather(CarData data) {
+        Stream<Object> cars = Lab1.generateUnboundedCars(CarData.SEED);
+        return (data.parallel ? cars.parallel() : cars)
+                .gather(Lab1.carGatherer(SKIP_COUNT, BRAND_TO_SKIP, data.size))
+                .toList();
+    }
+}
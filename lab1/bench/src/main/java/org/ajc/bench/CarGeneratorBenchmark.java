@@ -0,0 +1,49 @@
+package org.ajc.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures {@code CarGenerator.generateCars()}: raw car generation and generation into a columnar table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector", "-Xmx4g"})
+public class CarGeneratorBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    @Benchmark
+    public void generate(Blackhole blackhole) {
+        cars().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public Object generateTable() {
+        return cars().collect(Lab1.tableCollector());
+    }
+
+    private Stream<Object> cars() {
+        Stream<Object> cars = Lab1.generateCars(size, CarData.SEED);
+        return parallel ? cars.parallel() : cars;
+    }
+}
@@ -0,0 +1,220 @@
+package org.ajc.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Gatherer;
+import java.util.stream.Stream;
+
+/**
+ * Bridge to the lab1 classes.
+ * The lab1 sources live in the unnamed package, which cannot be imported from the named package JMH requires for
+ * benchmarks, so the operations under test are bound once to constant method handles that the JIT inlines.
+ */
+final class Lab1 {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodHandle GENERATE_CARS = findStatic("CarGenerator", "generateCars",
+            MethodType.methodType(Stream.class, long.class, long.class));
+    private static final MethodHandle GENERATE_UNBOUNDED = findStatic("CarGenerator", "generateCars",
+            MethodType.methodType(Stream.class, long.class));
+    private static final MethodHandle NEW_GATHERER = findConstructor("CarGatherer",
+            MethodType.methodType(Gatherer.class, int.class, String.class, int.class));
+    private static final MethodHandle NEW_STATISTICS_COLLECTOR = findConstructor("CarStatisticsCollector",
+            MethodType.methodType(Collector.class));
+    private static final MethodHandle NEW_TABLE_COLLECTOR = findConstructor("CarTableCollector",
+            MethodType.methodType(Collector.class));
+    private static final MethodHandle NEW_ANALYSIS = findConstructor("CarAnalysis",
+            MethodType.methodType(Object.class, List.class));
+    private static final MethodHandle ANALYZE = findVirtual("CarAnalysis", "analyze",
+            MethodType.methodType(type("IqrResult")), MethodType.methodType(Object.class, Object.class));
+    private static final MethodHandle ANALYZE_APPROXIMATE = findVirtual("CarAnalysis", "analyzeApproximate",
+            MethodType.methodType(type("IqrResult"), double.class),
+            MethodType.methodType(Object.class, Object.class, double.class));
+    private static final MethodHandle MANUFACTURE_WINDOW = findStatic("ManufactureWindow", "ofFullMonths",
+            MethodType.methodType(type("ManufactureWindow"), int.class, int.class, LocalDate.class),
+            MethodType.methodType(Object.class, int.class, int.class, LocalDate.class));
+    private static final MethodHandle WINDOW_CONTAINS = findVirtual("ManufactureWindow", "contains",
+            MethodType.methodType(boolean.class, long.class),
+            MethodType.methodType(boolean.class, Object.class, long.class));
+    private static final MethodHandle MANUFACTURE_DATE = findVirtual("Car", "getManufactureDate",
+            MethodType.methodType(LocalDate.class), MethodType.methodType(LocalDate.class, Object.class));
+    private static final MethodHandle CAR_CLASS = findVirtual("Car", "getCarClass",
+            MethodType.methodType(String.class), MethodType.methodType(String.class, Object.class));
+    private static final MethodHandle PARTITION = findStatic("PartitionedCarTable", "of",
+            MethodType.methodType(type("PartitionedCarTable"), type("CarTable")),
+            MethodType.methodType(Object.class, Object.class));
+    private static final MethodHandle MANUFACTURED_WITHIN = findVirtual("PartitionedCarTable", "manufacturedWithin",
+            MethodType.methodType(Stream.class, type("ManufactureWindow")),
+            MethodType.methodType(Stream.class, Object.class, Object.class));
+
+    private Lab1() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static Stream<Object> generateCars(long count, long seed) {
+        try {
+            return (Stream<Object>) GENERATE_CARS.invokeExact(count, seed);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Stream<Object> generateUnboundedCars(long seed) {
+        try {
+            return (Stream<Object>) GENERATE_UNBOUNDED.invokeExact(seed);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Gatherer<Object, ?, Object> carGatherer(int skipCount, String brandToSkip, int limit) {
+        try {
+            return (Gatherer<Object, ?, Object>) NEW_GATHERER.invokeExact(skipCount, brandToSkip, limit);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Collector<Object, ?, Object> statisticsCollector() {
+        try {
+            return (Collector<Object, ?, Object>) NEW_STATISTICS_COLLECTOR.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Collector<Object, ?, Object> tableCollector() {
+        try {
+            return (Collector<Object, ?, Object>) NEW_TABLE_COLLECTOR.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object analysis(List<Object> cars) {
+        try {
+            return (Object) NEW_ANALYSIS.invokeExact(cars);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object analyze(Object analysis) {
+        try {
+            return (Object) ANALYZE.invokeExact(analysis);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object analyzeApproximate(Object analysis, double rankError) {
+        try {
+            return (Object) ANALYZE_APPROXIMATE.invokeExact(analysis, rankError);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object manufactureWindow(int firstFullMonth, int lastFullMonth, LocalDate reference) {
+        try {
+            return (Object) MANUFACTURE_WINDOW.invokeExact(firstFullMonth, lastFullMonth, reference);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static boolean windowContains(Object window, long epochDay) {
+        try {
+            return (boolean) WINDOW_CONTAINS.invokeExact(window, epochDay);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static LocalDate manufactureDate(Object car) {
+        try {
+            return (LocalDate) MANUFACTURE_DATE.invokeExact(car);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String carClass(Object car) {
+        try {
+            return (String) CAR_CLASS.invokeExact(car);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object partition(Object table) {
+        try {
+            return (Object) PARTITION.invokeExact(table);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Stream<Object> manufacturedWithin(Object partitionedTable, Object window) {
+        try {
+            return (Stream<Object>) MANUFACTURED_WITHIN.invokeExact(partitionedTable, window);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle findStatic(String owner, String name, MethodType type) {
+        return findStatic(owner, name, type, type);
+    }
+
+    private static MethodHandle findStatic(String owner, String name, MethodType type, MethodType erased) {
+        try {
+            return LOOKUP.findStatic(type(owner), name, type).asType(erased);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle findVirtual(String owner, String name, MethodType type, MethodType erased) {
+        try {
+            return LOOKUP.findVirtual(type(owner), name, type).asType(erased);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle findConstructor(String owner, MethodType erased) {
+        try {
+            return LOOKUP.findConstructor(type(owner), erased.changeReturnType(void.class)).asType(erased);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException(e);
+    }
+}
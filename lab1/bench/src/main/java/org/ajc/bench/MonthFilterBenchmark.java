@@ -0,0 +1,68 @@
+package org.ajc.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Measures the month filter and {@code groupingBy} step of {@code Main}: the original per-car
+ * {@link ChronoUnit#MONTHS} computation, the precomputed manufacture window, and the month-partitioned table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector", "-Xmx4g"})
+public class MonthFilterBenchmark {
+    private static final int FIRST_FULL_MONTH = 60;
+    private static final int LAST_FULL_MONTH = 120;
+
+    private Object partitionedCars;
+
+    @Setup(Level.Trial)
+    public void partition(CarData data) {
+        partitionedCars = Lab1.partition(Lab1.generateCars(data.size, CarData.SEED).collect(Lab1.tableCollector()));
+    }
+
+    @Benchmark
+    public Map<String, List<Object>> filterPerCarMonths(CarData data) {
+        return data.stream()
+                .filter(car -> {
+                    int months = (int) ChronoUnit.MONTHS.between(Lab1.manufactureDate(car), LocalDate.now());
+                    return FIRST_FULL_MONTH < months && months < LAST_FULL_MONTH;
+                })
+                .collect(Collectors.groupingBy(Lab1::carClass));
+    }
+
+    @Benchmark
+    public Map<String, List<Object>> filterWindow(CarData data) {
+        Object window = Lab1.manufactureWindow(FIRST_FULL_MONTH, LAST_FULL_MONTH, LocalDate.now());
+        return data.stream()
+                .filter(car -> Lab1.windowContains(window, Lab1.manufactureDate(car).toEpochDay()))
+                .collect(Collectors.groupingBy(Lab1::carClass));
+    }
+
+    @Benchmark
+    public Map<String, List<Object>> filterPartitions(CarData data) {
+        Object window = Lab1.manufactureWindow(FIRST_FULL_MONTH, LAST_FULL_MONTH, LocalDate.now());
+        Stream<Object> cars = Lab1.manufacturedWithin(partitionedCars, window);
+        return (data.parallel ? cars.parallel() : cars).collect(Collectors.groupingBy(Lab1::carClass));
+    }
+}
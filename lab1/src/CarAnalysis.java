@@ -1,12 +1,15 @@
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Analyzes car prices to detect outliers based on interquartile range (IQR).
  */
 public class CarAnalysis {
-    private final List<Car> cars;
+    private static final int RADIX_BITS = 16;
+    private static final int SELECTION_LIMIT = 1 << 20;
+
+    private final double[] prices;
+    private final OffHeapCarTable table;
 
     /**
      * Constructor to initialize the car list.
@@ -14,48 +17,158 @@ public class CarAnalysis {
      * @param cars List of cars to analyze.
      */
     public CarAnalysis(List<Car> cars) {
-        this.cars = cars;
+        this.prices = cars.stream().mapToDouble(Car::getPrice).toArray();
+        this.table = null;
+    }
+
+    /**
+     * Constructor to initialize the analysis from the price column of a car table.
+     *
+     * @param cars Table of cars to analyze.
+     */
+    public CarAnalysis(CarTable cars) {
+        this.prices = Arrays.copyOf(cars.getPriceColumn(), cars.size());
+        this.table = null;
+    }
+
+    /**
+     * Constructor to initialize the analysis from the prices of an off-heap car table.
+     * The prices stay in native memory: the exact analysis narrows each quartile down with radix passes over the
+     * table and copies at most {@value #SELECTION_LIMIT} prices to the heap for the final selection.
+     * The table must stay open while it is analyzed.
+     *
+     * @param cars Off-heap table of cars to analyze.
+     */
+    public CarAnalysis(OffHeapCarTable cars) {
+        this.prices = null;
+        this.table = cars;
+    }
+
+    /**
+     * Perform exact analysis of data points and outliers.
+     * Quartiles are found by selection on a primitive copy of the prices in O(n) expected time.
+     *
+     * @return the IQR analysis of the car prices.
+     */
+    public IqrResult analyze() {
+        if (table != null) {
+            return analyze(table);
+        }
+        return PriceQuantiles.iqr(prices.clone());
+    }
+
+    /**
+     * Perform approximate analysis with a quantile sketch.
+     * Quartiles and outlier counts are estimated in a single pass with bounded memory.
+     *
+     * @param rankError Desired rank error of the sketch as a fraction of the number of cars (e.g., 0.01 for 1%).
+     * @return the estimated IQR analysis of the car prices.
+     */
+    public IqrResult analyzeApproximate(double rankError) {
+        PriceSketch sketch = PriceSketch.withRankError(rankError);
+        if (table != null) {
+            table.prices().forEach(sketch);
+        } else {
+            for (double price : prices) {
+                sketch.accept(price);
+            }
+        }
+        return analyzeSketch(sketch);
     }
 
     /**
-     * Perform analysis and print data points and outliers.
+     * Estimate data points and outliers from an already built price sketch.
+     * This allows analyzing streams that are too large to keep, including a limited
+     * {@link CarGenerator#generateCars()} stream collected with {@link PriceSketchCollector}.
+     *
+     * @param sketch The sketch of car prices.
+     * @return the estimated IQR analysis of the sketched prices.
      */
-    public void analyze() {
-        List<Double> prices = cars.stream()
-                .map(Car::getPrice)
-                .sorted()
-                .toList();
+    public static IqrResult analyzeSketch(PriceSketch sketch) {
+        double Q1 = sketch.percentile(25);
+        double Q3 = sketch.percentile(75);
 
-        double Q1 = calculatePercentile(prices, 25);
-        double Q3 = calculatePercentile(prices, 75);
-        double IQR = Q3 - Q1;
+        long outliers = sketch.countBelow(IqrResult.lowerBound(Q1, Q3)) + sketch.countAbove(IqrResult.upperBound(Q1, Q3));
+        long data = sketch.getCount() - outliers;
 
-        double lowerBound = Q1 - 1.5 * IQR;
-        double upperBound = Q3 + 1.5 * IQR;
+        return new IqrResult(Q1, Q3, data, outliers);
+    }
 
-        long outliers = prices.stream().filter(price -> price < lowerBound || price > upperBound).count();
-        long data = prices.size() - outliers;
+    /**
+     * Estimate data points and outliers from a price histogram.
+     * Quartiles and outlier counts are accurate to the bucket width of the histogram, and histograms of several
+     * shards or groups can be merged before the analysis.
+     *
+     * @param histogram The histogram of car prices.
+     * @return the estimated IQR analysis of the recorded prices.
+     */
+    public static IqrResult analyzeHistogram(PriceHistogram histogram) {
+        double Q1 = histogram.percentile(25);
+        double Q3 = histogram.percentile(75);
 
-        Map<String, Long> result = new HashMap<>();
-        result.put("data", data);
-        result.put("outliers", outliers);
+        long outliers = histogram.countBelow(IqrResult.lowerBound(Q1, Q3)) + histogram.countAbove(IqrResult.upperBound(Q1, Q3));
+        long data = histogram.getCount() - outliers;
 
-        System.out.println("\n");
-        for (Map.Entry<String, Long> entry : result.entrySet()) {
-            System.out.println(entry.getKey() + ": " + entry.getValue());
+        return new IqrResult(Q1, Q3, data, outliers);
+    }
+
+    /**
+     * Computes the exact IQR analysis of an off-heap table with a bounded heap copy.
+     */
+    private static IqrResult analyze(OffHeapCarTable table) {
+        long size = table.size();
+        double q1 = select(table, PriceQuantiles.percentileIndex(size, 25));
+        double q3 = select(table, PriceQuantiles.percentileIndex(size, 75));
+        double lowerBound = IqrResult.lowerBound(q1, q3);
+        double upperBound = IqrResult.upperBound(q1, q3);
+
+        long outliers = table.prices().filter(price -> price < lowerBound || price > upperBound).count();
+        return new IqrResult(q1, q3, size - outliers, outliers);
+    }
+
+    /**
+     * Finds the price of the given rank in ascending order by radix selection over the order-preserving bits of the
+     * prices: every pass counts the next {@value #RADIX_BITS} bits of the prices sharing the prefix found so far,
+     * until the prefix holds few enough prices to be copied and selected on the heap, or identifies one price.
+     */
+    private static double select(OffHeapCarTable table, long rank) {
+        long prefix = 0;
+        int prefixBits = 0;
+        while (true) {
+            long matchPrefix = prefix;
+            int matchBits = prefixBits;
+            long[] counts = new long[1 << RADIX_BITS];
+            table.prices().forEach(price -> {
+                long bits = PriceQuantiles.sortableBits(price);
+                if (hasPrefix(bits, matchPrefix, matchBits)) {
+                    counts[(int) (bits >>> (Long.SIZE - RADIX_BITS - matchBits)) & ((1 << RADIX_BITS) - 1)]++;
+                }
+            });
+            int digit = 0;
+            while (rank >= counts[digit]) {
+                rank -= counts[digit++];
+            }
+            prefix = (prefix << RADIX_BITS) | digit;
+            prefixBits += RADIX_BITS;
+            if (prefixBits == Long.SIZE) {
+                return PriceQuantiles.priceOfBits(prefix);
+            }
+            if (counts[digit] <= SELECTION_LIMIT) {
+                long bucketPrefix = prefix;
+                int bucketBits = prefixBits;
+                double[] bucket = table.prices()
+                        .filter(price -> hasPrefix(PriceQuantiles.sortableBits(price), bucketPrefix, bucketBits))
+                        .toArray();
+                return PriceQuantiles.select(bucket, 0, bucket.length, (int) rank);
+            }
         }
     }
 
     /**
-     * Calculates a percentile value from a sorted list of values.
-     *
-     * @param values     The sorted list of values.
-     * @param percentile The desired percentile (e.g., 25 for Q1).
-     * @return The calculated percentile value.
+     * Checks whether the top bits of sortable price bits match a prefix.
      */
-    private static double calculatePercentile(List<Double> values, double percentile) {
-        int index = (int) Math.ceil(percentile / 100.0 * values.size()) - 1;
-        return values.get(index);
+    private static boolean hasPrefix(long bits, long prefix, int prefixBits) {
+        return prefixBits == 0 || bits >>> (Long.SIZE - prefixBits) == prefix;
     }
 
 }
@@ -0,0 +1,221 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Bitmap indexes over the brand, model, class and manufacture year columns of a {@link CarTable}.
+ * Every distinct value gets a {@link RowBitmap} of the rows that have it, built in one pass over the dictionary codes,
+ * so a predicate such as "brand is Toyota and class is SUV and year is 2018 to 2020" becomes bitmap AND and OR
+ * operations whose cost depends on the number of matching rows rather than the size of the table. The resulting
+ * row sets feed statistics, the IQR analysis and car streams directly from the table columns.
+ * The index covers the rows the table had when the index was built. Bitmaps returned for single values are shared
+ * with the index and must not be modified.
+ */
+public class CarBitmapIndex {
+    private final CarTable cars;
+    private final int rowCount;
+    private final RowBitmap[] brands;
+    private final RowBitmap[] models;
+    private final RowBitmap[] classes;
+    private final int firstYear;
+    private final RowBitmap[] years;
+
+    /**
+     * Builds the indexes of a table.
+     *
+     * @param cars The table to index.
+     */
+    public CarBitmapIndex(CarTable cars) {
+        this.cars = cars;
+        this.rowCount = cars.size();
+        this.brands = emptyBitmaps(cars.getBrands().size());
+        this.models = emptyBitmaps(cars.getModels().size());
+        this.classes = emptyBitmaps(cars.getClasses().size());
+
+        int[] epochDays = cars.getEpochDayColumn();
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        for (int row = 0; row < rowCount; row++) {
+            int year = CarTable.yearOfEpochDay(epochDays[row]);
+            minYear = Math.min(minYear, year);
+            maxYear = Math.max(maxYear, year);
+        }
+        this.firstYear = rowCount == 0 ? 0 : minYear;
+        this.years = emptyBitmaps(rowCount == 0 ? 0 : maxYear - minYear + 1);
+
+        short[] brandColumn = cars.getBrandCodeColumn();
+        short[] modelColumn = cars.getModelCodeColumn();
+        short[] classColumn = cars.getClassCodeColumn();
+        for (int row = 0; row < rowCount; row++) {
+            brands[Short.toUnsignedInt(brandColumn[row])].add(row);
+            models[Short.toUnsignedInt(modelColumn[row])].add(row);
+            classes[Short.toUnsignedInt(classColumn[row])].add(row);
+            years[CarTable.yearOfEpochDay(epochDays[row]) - firstYear].add(row);
+        }
+    }
+
+    /**
+     * Gets the rows of a brand.
+     *
+     * @param brand The brand, matched exactly.
+     * @return the rows of the brand; empty if the table has no such brand.
+     */
+    public RowBitmap brand(String brand) {
+        return lookup(brands, cars.getBrands().lookup(brand));
+    }
+
+    /**
+     * Gets the rows of a brand ignoring case, the way {@link CarGatherer} compares brands.
+     * Case variants are resolved once on the dictionary, not per row.
+     *
+     * @param brand The brand in any case.
+     * @return the rows of all brands equal to the given one ignoring case.
+     */
+    public RowBitmap brandIgnoreCase(String brand) {
+        CarDictionary dictionary = cars.getBrands();
+        List<RowBitmap> matches = new ArrayList<>();
+        for (int code = 0; code < brands.length; code++) {
+            if (dictionary.decode(code).equalsIgnoreCase(brand)) {
+                matches.add(brands[code]);
+            }
+        }
+        return RowBitmap.or(matches);
+    }
+
+    /**
+     * Gets the rows of a model.
+     *
+     * @param model The model, matched exactly.
+     * @return the rows of the model; empty if the table has no such model.
+     */
+    public RowBitmap model(String model) {
+        return lookup(models, cars.getModels().lookup(model));
+    }
+
+    /**
+     * Gets the rows of a car class.
+     *
+     * @param carClass The class, matched exactly.
+     * @return the rows of the class; empty if the table has no such class.
+     */
+    public RowBitmap carClass(String carClass) {
+        return lookup(classes, cars.getClasses().lookup(carClass));
+    }
+
+    /**
+     * Gets the rows of a manufacture year.
+     *
+     * @param year The manufacture year.
+     * @return the rows of the year; empty if no car was made in it.
+     */
+    public RowBitmap year(int year) {
+        return lookup(years, year - firstYear);
+    }
+
+    /**
+     * Gets the rows of a range of manufacture years.
+     *
+     * @param fromYear The first year (inclusive).
+     * @param toYear   The last year (inclusive).
+     * @return the rows of all years in the range.
+     */
+    public RowBitmap years(int fromYear, int toYear) {
+        List<RowBitmap> matches = new ArrayList<>();
+        for (int year = Math.max(fromYear, firstYear); year <= toYear && year - firstYear < years.length; year++) {
+            matches.add(years[year - firstYear]);
+        }
+        return RowBitmap.or(matches);
+    }
+
+    /**
+     * Gets all indexed rows, e.g. to negate a predicate with {@link RowBitmap#andNot(RowBitmap)}.
+     *
+     * @return the rows of the whole table.
+     */
+    public RowBitmap all() {
+        return RowBitmap.range(0, rowCount);
+    }
+
+    /**
+     * Computes the price statistics of the selected rows straight from the price column.
+     *
+     * @param rows The selected rows.
+     * @return the statistics of the selected cars.
+     */
+    public CarStatistics statistics(RowBitmap rows) {
+        double[] prices = cars.getPriceColumn();
+        PriceMoments moments = new PriceMoments();
+        rows.forEach(row -> moments.accept(prices[row]));
+        return moments.toStatistics();
+    }
+
+    /**
+     * Performs exact analysis of data points and outliers of the selected rows.
+     *
+     * @param rows The selected rows, not empty.
+     * @return the IQR analysis of the selected prices.
+     */
+    public IqrResult analyze(RowBitmap rows) {
+        return PriceQuantiles.iqr(prices(rows));
+    }
+
+    /**
+     * Copies the prices of the selected rows.
+     *
+     * @param rows The selected rows.
+     * @return a new array of prices in row order.
+     */
+    public double[] prices(RowBitmap rows) {
+        double[] prices = cars.getPriceColumn();
+        double[] selected = new double[rows.getCardinality()];
+        int[] position = new int[1];
+        rows.forEach(row -> selected[position[0]++] = prices[row]);
+        return selected;
+    }
+
+    /**
+     * Streams the selected cars in row order.
+     *
+     * @param rows The selected rows.
+     * @return a stream of the selected cars.
+     */
+    public Stream<Car> stream(RowBitmap rows) {
+        return rows.stream().mapToObj(cars::getCar);
+    }
+
+    /**
+     * Gets the indexed table.
+     *
+     * @return the table of cars.
+     */
+    public CarTable getCars() {
+        return cars;
+    }
+
+    /**
+     * Gets the number of indexed rows.
+     *
+     * @return the number of rows.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the bitmap of a code, or an empty bitmap if the code is unknown.
+     */
+    private static RowBitmap lookup(RowBitmap[] bitmaps, int code) {
+        return code >= 0 && code < bitmaps.length ? bitmaps[code] : new RowBitmap();
+    }
+
+    /**
+     * Creates an array of empty bitmaps.
+     */
+    private static RowBitmap[] emptyBitmaps(int count) {
+        RowBitmap[] bitmaps = new RowBitmap[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = new RowBitmap();
+        }
+        return bitmaps;
+    }
+}
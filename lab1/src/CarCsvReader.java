@@ -0,0 +1,346 @@
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Reads cars from CSV files with the columns {@code brand,model,manufactureDate,carClass,price},
+ * where the date is written as {@code yyyy-MM-dd}. An optional header line whose first field is {@code brand} is skipped.
+ * The file is memory-mapped and split into byte ranges aligned on line boundaries, which are parsed in parallel
+ * straight from the mapped bytes into columnar {@link CarTable} chunks: dates and prices are decoded without
+ * intermediate strings, and brand, model and class values are interned so every distinct value is decoded once per chunk.
+ */
+public final class CarCsvReader {
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final byte SEPARATOR = ',';
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte[] HEADER_PREFIX = "brand,".getBytes(StandardCharsets.US_ASCII);
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private CarCsvReader() {
+    }
+
+    /**
+     * Reads a CSV file using one chunk per available processor.
+     *
+     * @param path The path of the CSV file.
+     * @return a table with all cars of the file in file order.
+     * @throws IOException if the file cannot be read.
+     */
+    public static CarTable read(Path path) throws IOException {
+        return read(path, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Reads a CSV file, parsing up to the given number of chunks in parallel.
+     *
+     * @param path      The path of the CSV file.
+     * @param maxChunks Maximum number of chunks the file is split into.
+     * @return a table with all cars of the file in file order.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if a line is not a valid car record.
+     */
+    public static CarTable read(Path path, int maxChunks) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             Arena arena = Arena.ofShared()) {
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            long[] bounds = chunkBounds(file, maxChunks);
+
+            List<CarTable> chunks = IntStream.range(0, bounds.length - 1)
+                    .parallel()
+                    .mapToObj(chunk -> parseChunk(file, bounds[chunk], bounds[chunk + 1], chunk == 0))
+                    .toList();
+
+            CarTable cars = new CarTable(chunks.stream().mapToInt(CarTable::size).sum());
+            chunks.forEach(cars::addAll);
+            return cars;
+        }
+    }
+
+    /**
+     * Splits the file into byte ranges of similar size that start right after a line break.
+     */
+    private static long[] chunkBounds(MemorySegment file, int maxChunks) {
+        long size = file.byteSize();
+        int chunks = (int) Math.max(1, Math.min(Math.max(1, maxChunks), size / MIN_CHUNK_SIZE));
+        long[] bounds = new long[chunks + 1];
+        int count = 1;
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            long position = Math.max(size * chunk / chunks, bounds[count - 1]);
+            while (position < size && file.get(ValueLayout.JAVA_BYTE, position - 1) != NEW_LINE) {
+                position++;
+            }
+            if (position > bounds[count - 1] && position < size) {
+                bounds[count++] = position;
+            }
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Parses the lines of one byte range into a table.
+     *
+     * @param file   The bytes to parse.
+     * @param start  Offset of the first line (inclusive).
+     * @param end    Offset after the last line (exclusive).
+     * @param header Whether the first line may be a header to skip.
+     * @return a table with the parsed cars.
+     * @throws IllegalArgumentException if a line is not a valid car record.
+     */
+    static CarTable parseChunk(MemorySegment file, long start, long end, boolean header) {
+        CarTable cars = new CarTable();
+        ValueInterner brands = new ValueInterner(cars.getBrands());
+        ValueInterner models = new ValueInterner(cars.getModels());
+        ValueInterner classes = new ValueInterner(cars.getClasses());
+
+        long position = start;
+        while (position < end) {
+            long lineEnd = position;
+            while (lineEnd < end && file.get(ValueLayout.JAVA_BYTE, lineEnd) != NEW_LINE) {
+                lineEnd++;
+            }
+            long next = lineEnd + 1;
+            if (lineEnd > position && file.get(ValueLayout.JAVA_BYTE, lineEnd - 1) == CARRIAGE_RETURN) {
+                lineEnd--;
+            }
+            if (lineEnd > position && !(header && position == start && isHeader(file, position, lineEnd))) {
+                parseLine(file, position, lineEnd, cars, brands, models, classes);
+            }
+            position = next;
+        }
+        return cars;
+    }
+
+    /**
+     * Parses one line and appends the car to the table.
+     */
+    private static void parseLine(MemorySegment file, long start, long end, CarTable cars,
+                                  ValueInterner brands, ValueInterner models, ValueInterner classes) {
+        long brandEnd = nextSeparator(file, start, end);
+        long modelEnd = nextSeparator(file, brandEnd + 1, end);
+        long dateEnd = nextSeparator(file, modelEnd + 1, end);
+        long classEnd = nextSeparator(file, dateEnd + 1, end);
+        if (classEnd >= end) {
+            throw malformed(start, "expected 5 fields");
+        }
+        int brand = brands.intern(file, start, brandEnd);
+        int model = models.intern(file, brandEnd + 1, modelEnd);
+        int epochDay = parseEpochDay(file, modelEnd + 1, dateEnd);
+        int carClass = classes.intern(file, dateEnd + 1, classEnd);
+        double price = parsePrice(file, classEnd + 1, end);
+        cars.addEncoded(brand, model, carClass, epochDay, price);
+    }
+
+    /**
+     * Checks whether the first line of the file is a header: its first field is {@code brand}, ignoring case,
+     * so cars of brands that merely start with it (such as {@code Brandt}) are kept.
+     */
+    private static boolean isHeader(MemorySegment file, long start, long end) {
+        if (end - start < HEADER_PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER_PREFIX.length; i++) {
+            if ((file.get(ValueLayout.JAVA_BYTE, start + i) | 0x20) != HEADER_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the next field separator, or the end of the line.
+     */
+    private static long nextSeparator(MemorySegment file, long position, long end) {
+        while (position < end && file.get(ValueLayout.JAVA_BYTE, position) != SEPARATOR) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Parses a {@code yyyy-MM-dd} date directly into an epoch day.
+     */
+    private static int parseEpochDay(MemorySegment file, long start, long end) {
+        if (end - start != 10 || file.get(ValueLayout.JAVA_BYTE, start + 4) != '-'
+                || file.get(ValueLayout.JAVA_BYTE, start + 7) != '-') {
+            throw malformed(start, "expected a yyyy-MM-dd date");
+        }
+        int year = parseDigits(file, start, start + 4);
+        int month = parseDigits(file, start + 5, start + 7);
+        int day = parseDigits(file, start + 8, start + 10);
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw malformed(start, "invalid date");
+        }
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * Parses a decimal price such as {@code 1250000} or {@code 1250000.50}.
+     * Prices with at most 15 significant digits are assembled from an exact integer and a power of ten;
+     * anything else falls back to {@link Double#parseDouble(String)}.
+     */
+    private static double parsePrice(MemorySegment file, long start, long end) {
+        long position = start;
+        boolean negative = position < end && file.get(ValueLayout.JAVA_BYTE, position) == '-';
+        if (negative) {
+            position++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; position < end; position++) {
+            byte b = file.get(ValueLayout.JAVA_BYTE, position);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fraction) {
+                    scale++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0 || position < end || digits > 15) {
+            String text = new String(file.asSlice(start, end - start).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.US_ASCII);
+            try {
+                return Double.parseDouble(text.trim());
+            } catch (NumberFormatException e) {
+                throw malformed(start, "invalid price '" + text + "'");
+            }
+        }
+        double price = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -price : price;
+    }
+
+    /**
+     * Parses a fixed-width run of decimal digits.
+     */
+    private static int parseDigits(MemorySegment file, long start, long end) {
+        int value = 0;
+        for (long position = start; position < end; position++) {
+            int digit = file.get(ValueLayout.JAVA_BYTE, position) - '0';
+            if (digit < 0 || digit > 9) {
+                throw malformed(start, "expected a digit");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Gets the number of days in a month of the proleptic Gregorian calendar.
+     */
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Converts a valid date to an epoch day with the days-from-civil algorithm.
+     */
+    static int epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Creates the exception reported for a malformed record.
+     */
+    private static IllegalArgumentException malformed(long offset, String reason) {
+        return new IllegalArgumentException("Malformed car record at byte " + offset + ": " + reason);
+    }
+
+    /**
+     * Per-chunk intern table from raw field bytes to dictionary codes.
+     * Repeated values are matched by comparing bytes in place, so a string is only created the first time a value is seen.
+     */
+    private static final class ValueInterner {
+        private final CarDictionary dictionary;
+        private byte[][] keys = new byte[64][];
+        private int[] codes = new int[64];
+        private int size;
+
+        private ValueInterner(CarDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        private int intern(MemorySegment file, long start, long end) {
+            int length = (int) (end - start);
+            int hash = 1;
+            for (long position = start; position < end; position++) {
+                hash = 31 * hash + file.get(ValueLayout.JAVA_BYTE, position);
+            }
+            int mask = keys.length - 1;
+            int slot = mix(hash) & mask;
+            while (keys[slot] != null) {
+                if (matches(keys[slot], file, start, length)) {
+                    return codes[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            byte[] key = file.asSlice(start, length).toArray(ValueLayout.JAVA_BYTE);
+            int code = dictionary.encode(new String(key, StandardCharsets.UTF_8));
+            keys[slot] = key;
+            codes[slot] = code;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return code;
+        }
+
+        private static boolean matches(byte[] key, MemorySegment file, long start, int length) {
+            if (key.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (key[i] != file.get(ValueLayout.JAVA_BYTE, start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            int[] oldCodes = codes;
+            keys = new byte[oldKeys.length * 2][];
+            codes = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = mix(Arrays.hashCode(oldKeys[i])) & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    codes[slot] = oldCodes[i];
+                }
+            }
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
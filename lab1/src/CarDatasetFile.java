@@ -0,0 +1,145 @@
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact fixed-width binary file format for car datasets.
+ * <pre>
+ * header        magic "CARS" (int), version (int), row count (long), column section offset (long)
+ * dictionaries  brands, models, classes; each is a value count (int) followed by (byte length (int), UTF-8 bytes)
+ * columns       8-byte aligned blocks: price (double[n]), epoch day (int[n]), brand, model and class codes (short[n])
+ * </pre>
+ * All values are little-endian. Files are written and read through memory-mapped {@link MemorySegment}s,
+ * so datasets larger than 2 GB can be scanned without deserializing cars.
+ */
+public final class CarDatasetFile {
+    static final int MAGIC = 0x43415253;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+
+    static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private CarDatasetFile() {
+    }
+
+    /**
+     * Writes a car table to a file, replacing any existing file.
+     *
+     * @param cars The cars to write.
+     * @param path The path of the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(CarTable cars, Path path) throws IOException {
+        byte[][][] dictionaries = {
+                encodeDictionary(cars.getBrands()),
+                encodeDictionary(cars.getModels()),
+                encodeDictionary(cars.getClasses())
+        };
+        long dictionarySize = 0;
+        for (byte[][] dictionary : dictionaries) {
+            dictionarySize += Integer.BYTES;
+            for (byte[] value : dictionary) {
+                dictionarySize += Integer.BYTES + value.length;
+            }
+        }
+        long rows = cars.size();
+        long columnOffset = align(HEADER_SIZE + dictionarySize);
+        long fileSize = columnOffset + columnsSize(rows);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Arena arena = Arena.ofConfined()) {
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize, arena);
+            file.set(INT, 0, MAGIC);
+            file.set(INT, 4, VERSION);
+            file.set(LONG, 8, rows);
+            file.set(LONG, 16, columnOffset);
+
+            long offset = HEADER_SIZE;
+            for (byte[][] dictionary : dictionaries) {
+                file.set(INT, offset, dictionary.length);
+                offset += Integer.BYTES;
+                for (byte[] value : dictionary) {
+                    file.set(INT, offset, value.length);
+                    offset += Integer.BYTES;
+                    MemorySegment.copy(value, 0, file, ValueLayout.JAVA_BYTE, offset, value.length);
+                    offset += value.length;
+                }
+            }
+
+            int size = cars.size();
+            MemorySegment.copy(cars.getPriceColumn(), 0, file, DOUBLE, priceOffset(columnOffset), size);
+            MemorySegment.copy(cars.getEpochDayColumn(), 0, file, INT, epochDayOffset(columnOffset, rows), size);
+            MemorySegment.copy(cars.getBrandCodeColumn(), 0, file, SHORT, codeOffset(columnOffset, rows, 0), size);
+            MemorySegment.copy(cars.getModelCodeColumn(), 0, file, SHORT, codeOffset(columnOffset, rows, 1), size);
+            MemorySegment.copy(cars.getClassCodeColumn(), 0, file, SHORT, codeOffset(columnOffset, rows, 2), size);
+            file.force();
+        }
+    }
+
+    /**
+     * Maps a car dataset file for reading.
+     *
+     * @param path The path of the file.
+     * @return the mapped dataset; it must be closed to unmap the file.
+     * @throws IOException if the file cannot be read or is not a car dataset.
+     */
+    public static MappedCarDataset open(Path path) throws IOException {
+        return MappedCarDataset.open(path);
+    }
+
+    /**
+     * Computes the offset of the price column.
+     */
+    static long priceOffset(long columnOffset) {
+        return columnOffset;
+    }
+
+    /**
+     * Computes the offset of the epoch-day column.
+     */
+    static long epochDayOffset(long columnOffset, long rows) {
+        return priceOffset(columnOffset) + align(rows * Double.BYTES);
+    }
+
+    /**
+     * Computes the offset of a code column (0 for brands, 1 for models, 2 for classes).
+     */
+    static long codeOffset(long columnOffset, long rows, int column) {
+        return epochDayOffset(columnOffset, rows) + align(rows * Integer.BYTES) + column * align(rows * Short.BYTES);
+    }
+
+    /**
+     * Computes the total size of the column section.
+     */
+    private static long columnsSize(long rows) {
+        return align(rows * Double.BYTES) + align(rows * Integer.BYTES) + 3 * align(rows * Short.BYTES);
+    }
+
+    /**
+     * Rounds a size up to a multiple of eight bytes.
+     */
+    static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Encodes all dictionary values as UTF-8 in code order.
+     */
+    private static byte[][] encodeDictionary(CarDictionary dictionary) {
+        byte[][] values = new byte[dictionary.size()][];
+        for (int code = 0; code < values.length; code++) {
+            values[code] = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary that maps repeated string values (brands, models, classes) to compact integer codes.
+ * Codes are assigned in insertion order starting from zero.
+ */
+public class CarDictionary {
+    /**
+     * Maximum number of distinct values, so that every code fits into an unsigned 16-bit column.
+     */
+    public static final int MAX_SIZE = 1 << 16;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Returns the code of the value, registering the value if it has not been seen before.
+     *
+     * @param value The value to encode.
+     * @return The code of the value.
+     * @throws IllegalStateException if the dictionary already holds {@link #MAX_SIZE} values.
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (values.size() == MAX_SIZE) {
+            throw new IllegalStateException("Dictionary cannot hold more than " + MAX_SIZE + " values");
+        }
+        int newCode = values.size();
+        codes.put(value, newCode);
+        values.add(value);
+        return newCode;
+    }
+
+    /**
+     * Returns the code of the value without registering it.
+     *
+     * @param value The value to look up.
+     * @return The code of the value, or -1 if the value is unknown.
+     */
+    public int lookup(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Registers every value of another dictionary and returns the codes they have in this dictionary.
+     *
+     * @param other The dictionary whose values are encoded.
+     * @return the codes in this dictionary, indexed by the codes in the other dictionary.
+     */
+    public int[] encodeAll(CarDictionary other) {
+        int[] codes = new int[other.size()];
+        for (int code = 0; code < codes.length; code++) {
+            codes[code] = encode(other.decode(code));
+        }
+        return codes;
+    }
+
+    /**
+     * Returns the value stored under the given code.
+     *
+     * @param code The code of the value.
+     * @return The decoded value.
+     */
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * Gets the number of distinct values in the dictionary.
+     *
+     * @return the number of distinct values.
+     */
+    public int size() {
+        return values.size();
+    }
+}
@@ -1,62 +1,171 @@
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Supplier;
 import java.util.stream.Gatherer;
 
 /**
- * Custom collector that filters and collects cars based on specific criteria.
+ * Custom gatherer that skips the first cars of specific brands and limits the number of collected cars.
+ * All mutable state lives in the per-evaluation {@link State}, so one instance can be reused.
+ * Gatherers made by the constructors decide every car as it arrives, push it downstream at once and stop the stream
+ * when the limit is reached, with constant state; parallel streams run them over the parallel upstream in encounter
+ * order. Gatherers made by {@link #parallel(Map, int)} also evaluate segments in parallel: every segment buffers at
+ * most {@code limit + total skip count} cars in encounter order, the combiner concatenates segments and drops right
+ * segments once the left one is full, and the skip rules and limit are applied to the ordered buffer by the finisher.
+ * That buffering suits sized streams, not the unbounded generator.
  */
-public class CarGatherer implements Gatherer<Car, List<Car>, Car> {
+public class CarGatherer implements Gatherer<Car, CarGatherer.State, Car> {
 
-    private final int skipCount;
-    private final String brandToSkip;
+    private final Map<String, Integer> ruleIndexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final int[] skipCounts;
     private final int limit;
-    private int count;
+    private final int bufferCapacity;
+    private final boolean combinable;
 
     /**
      * Constructs a CarGatherer with filtering and limiting conditions.
      *
      * @param skipCount   Number of cars of a specific brand to skip.
-     * @param brandToSkip The brand of cars to skip.
+     * @param brandToSkip The brand of cars to skip, or {@code null} to skip nothing.
      * @param limit       Maximum number of cars to collect.
      */
     public CarGatherer(int skipCount, String brandToSkip, int limit) {
-        this.skipCount = skipCount;
-        this.brandToSkip = brandToSkip;
+        this(brandToSkip == null ? Map.of() : Map.of(brandToSkip, skipCount), limit);
+    }
+
+    /**
+     * Constructs a CarGatherer that skips cars of several brands.
+     *
+     * @param skipRules Number of cars to skip for each brand; brands are matched ignoring case.
+     * @param limit     Maximum number of cars to collect.
+     */
+    public CarGatherer(Map<String, Integer> skipRules, int limit) {
+        this(skipRules, limit, false);
+    }
+
+    /**
+     * Constructs a CarGatherer that buffers segments for parallel evaluation if {@code combinable} is set.
+     */
+    private CarGatherer(Map<String, Integer> skipRules, int limit, boolean combinable) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        this.skipCounts = new int[skipRules.size()];
+        long totalSkip = 0;
+        for (Map.Entry<String, Integer> rule : skipRules.entrySet()) {
+            int skipCount = Math.max(0, rule.getValue());
+            Integer existing = ruleIndexes.putIfAbsent(rule.getKey(), ruleIndexes.size());
+            int index = existing == null ? ruleIndexes.size() - 1 : existing;
+            skipCounts[index] += skipCount;
+            totalSkip += skipCount;
+        }
         this.limit = limit;
-        this.count = 0;
+        this.bufferCapacity = (int) Math.min(Integer.MAX_VALUE - 8, limit + totalSkip);
+        this.combinable = combinable;
     }
 
+    /**
+     * Creates a gatherer whose stream segments are gathered in parallel and combined in encounter order.
+     *
+     * @param skipRules Number of cars to skip for each brand; brands are matched ignoring case.
+     * @param limit     Maximum number of cars to collect.
+     * @return the gatherer.
+     */
+    public static CarGatherer parallel(Map<String, Integer> skipRules, int limit) {
+        return new CarGatherer(skipRules, limit, true);
+    }
 
     @Override
-    public Supplier<List<Car>> initializer() {
-        return ArrayList::new;
+    public Supplier<State> initializer() {
+        return () -> new State(skipCounts.length);
     }
 
     @Override
-    public Integrator<List<Car>, Car, Car> integrator() {
-        return (state, element, downstream) -> {
-            boolean isSkip = element.getBrand().equalsIgnoreCase(brandToSkip) && state.size() < skipCount;
-            if (isSkip) {
-                state.add(element);
-                return true;
-            } else if (count < limit) {
-                count++;
-                return downstream.push(element);
+    public Integrator<State, Car, Car> integrator() {
+        if (combinable) {
+            return Integrator.of((state, element, downstream) -> {
+                if (state.cars.size() >= bufferCapacity) {
+                    return false;
+                }
+                state.cars.add(element);
+                return state.cars.size() < bufferCapacity;
+            });
+        }
+        return Integrator.of((state, element, downstream) -> {
+            if (state.pushed >= limit) {
+                return false;
             }
-            return false;
-        };
+            if (!skip(state, element)) {
+                state.pushed++;
+                if (!downstream.push(element)) {
+                    return false;
+                }
+            }
+            return state.pushed < limit;
+        });
     }
 
     @Override
-    public BinaryOperator<List<Car>> combiner() {
-        return Gatherer.super.combiner();
+    public BinaryOperator<State> combiner() {
+        if (!combinable) {
+            return Gatherer.super.combiner();
+        }
+        return (left, right) -> {
+            int free = bufferCapacity - left.cars.size();
+            if (free > 0) {
+                left.cars.addAll(right.cars.size() <= free ? right.cars : right.cars.subList(0, free));
+            }
+            return left;
+        };
     }
 
     @Override
-    public BiConsumer<List<Car>, Downstream<? super Car>> finisher() {
-        return Gatherer.super.finisher();
+    public BiConsumer<State, Downstream<? super Car>> finisher() {
+        if (!combinable) {
+            return Gatherer.super.finisher();
+        }
+        return (state, downstream) -> {
+            for (Car car : state.cars) {
+                if (state.pushed >= limit || downstream.isRejecting()) {
+                    return;
+                }
+                if (!skip(state, car)) {
+                    state.pushed++;
+                    downstream.push(car);
+                }
+            }
+        };
+    }
+
+    /**
+     * Decides whether a car is skipped, counting it against the rule of its brand.
+     */
+    private boolean skip(State state, Car car) {
+        Integer rule = ruleIndexes.get(car.getBrand());
+        if (rule != null && state.skipped[rule] < skipCounts[rule]) {
+            state.skipped[rule]++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Per-evaluation state of the gatherer: the number of cars skipped per rule and pushed so far, and for parallel
+     * gatherers the cars of one stream segment in encounter order.
+     */
+    public static class State {
+        private final List<Car> cars = new ArrayList<>();
+        private final int[] skipped;
+        private int pushed;
+
+        /**
+         * Constructs the state with no cars skipped or pushed.
+         */
+        private State(int rules) {
+            this.skipped = new int[rules];
+        }
     }
 }
@@ -1,23 +1,31 @@
 import java.time.LocalDate;
-import java.util.*;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Generates random car objects with various attributes.
+ * Cars are produced by a {@link CarSpliterator}, so the streams split evenly for {@code parallel()}
+ * and are reproducible for a given seed.
  */
 public class CarGenerator {
-    private static final Map<String, String[]> BRAND_MODELS = new HashMap<>();
+    private static final String[] BRANDS = {"Mercedes-Benz", "VW", "BMW", "Audi", "Porsche", "Opel"};
+    private static final String[][] MODELS = {
+            {"A-Class", "C-Class", "E-Class", "S-Class", "GLE"},
+            {"Golf", "Passat", "Tiguan", "Touareg", "Polo"},
+            {"320i", "M5", "X5", "X7", "Z4"},
+            {"A4", "Q5", "R8", "A6", "Q7"},
+            {"911 GT3", "Cayenne", "Taycan", "Panamera"},
+            {"Astra", "Vectra", "Corsa", "Insignia"}
+    };
     private static final String[] CLASSES = {"A", "B", "C", "D"};
-    private static final Random RANDOM = new Random();
-
-    static {
-        BRAND_MODELS.put("Mercedes-Benz", new String[]{"A-Class", "C-Class", "E-Class", "S-Class", "GLE"});
-        BRAND_MODELS.put("VW", new String[]{"Golf", "Passat", "Tiguan", "Touareg", "Polo"});
-        BRAND_MODELS.put("BMW", new String[]{"320i", "M5", "X5", "X7", "Z4"});
-        BRAND_MODELS.put("Audi", new String[]{"A4", "Q5", "R8", "A6", "Q7"});
-        BRAND_MODELS.put("Porsche", new String[]{"911 GT3", "Cayenne", "Taycan", "Panamera"});
-        BRAND_MODELS.put("Opel", new String[]{"Astra", "Vectra", "Corsa", "Insignia"});
-    }
+    private static final double[] CLASS_PRICE_BASES = {2_000_000, 800_000, 300_000, 100_000};
+    private static final double[] CLASS_PRICE_RANGES = {3_000_000, 1_200_000, 500_000, 200_000};
+    private static final int FIRST_YEAR = 2005;
+    private static final int END_YEAR = 2025; // exclusive
+    private static final int[] MODEL_CODE_OFFSETS = modelCodeOffsets();
+    private static final int[] YEAR_START_EPOCH_DAYS = yearStartEpochDays();
 
     /**
      * Generates an infinite stream of random cars.
@@ -25,64 +33,283 @@ public class CarGenerator {
      * @return A stream of random Car objects.
      */
     public static Stream<Car> generateCars() {
-        return Stream.generate(() -> {
-            String brand = getRandomBrand();
-            String carClass = CLASSES[RANDOM.nextInt(CLASSES.length)];
-            return new Car(
-                    brand,
-                    getRandomModel(brand),
-                    generateRandomDate(),
-                    carClass,
-                    generatePriceForClass(carClass)
-            );
-        });
+        return generateCars(new SplittableRandom().nextLong());
     }
 
     /**
-     * Selects a random brand from the available brands.
+     * Generates an infinite, reproducible stream of random cars.
      *
-     * @return A randomly selected brand name.
+     * @param seed The seed of the stream.
+     * @return A stream of random Car objects.
      */
-    private static String getRandomBrand() {
-        List<String> brands = new ArrayList<>(BRAND_MODELS.keySet());
-        return brands.get(RANDOM.nextInt(brands.size()));
+    public static Stream<Car> generateCars(long seed) {
+        return StreamSupport.stream(new CarSpliterator(seed, 0, Long.MAX_VALUE), false);
     }
 
     /**
-     * Selects a random model for a given brand.
+     * Generates a sized, reproducible stream of random cars.
+     * The same seed yields the same cars in the same order for sequential and parallel streams.
      *
-     * @param brand The brand for which a random model will be selected.
-     * @return A randomly selected model for the given brand.
+     * @param count The number of cars to generate.
+     * @param seed  The seed of the stream.
+     * @return A stream of random Car objects.
      */
-    private static String getRandomModel(String brand) {
-        String[] models = BRAND_MODELS.get(brand);
-        return models[RANDOM.nextInt(models.length)];
+    public static Stream<Car> generateCars(long count, long seed) {
+        return StreamSupport.stream(new CarSpliterator(seed, 0, count), false);
     }
 
     /**
-     * Generates a random price based on the class of the car.
+     * Generates a table of random cars in bulk.
+     * The table holds the same cars as {@link #generateCars(long, long)} with the same seed, but they are written
+     * straight into its columns without creating {@link Car} or {@link LocalDate} objects.
      *
-     * @param carClass The class of the car (A, B, C, or D).
-     * @return A randomly generated price for the car based on its class.
+     * @param count The number of cars to generate.
+     * @param seed  The seed of the cars.
+     * @return a new table with the generated cars.
+     */
+    public static CarTable generateTable(int count, long seed) {
+        CarTable table = new CarTable(brandDictionary(), modelDictionary(), classDictionary(), count);
+        generateInto(table, seed, 0, count);
+        return table;
+    }
+
+    /**
+     * Appends a range of random cars to a table in bulk.
+     * Generator codes are translated to the table's dictionaries once per call, so any table can be filled.
+     *
+     * @param table    The table to append the cars to.
+     * @param seed     The seed of the cars.
+     * @param firstRow Index of the first car in the seeded sequence, so large datasets can be generated in batches.
+     * @param count    The number of cars to generate.
+     */
+    public static void generateInto(CarTable table, long seed, long firstRow, int count) {
+        int offset = table.size();
+        table.ensureCapacity(offset + count);
+        short[] brandCodes = table.getBrandCodeColumn();
+        short[] modelCodes = table.getModelCodeColumn();
+        short[] classCodes = table.getClassCodeColumn();
+        generateColumns(seed, firstRow, table.getPriceColumn(), table.getEpochDayColumn(),
+                brandCodes, modelCodes, classCodes, offset, count);
+        recode(brandCodes, table.getBrands().encodeAll(brandDictionary()), offset, count);
+        recode(modelCodes, table.getModels().encodeAll(modelDictionary()), offset, count);
+        recode(classCodes, table.getClasses().encodeAll(classDictionary()), offset, count);
+        table.addWritten(count);
+    }
+
+    /**
+     * Fills caller-provided column buffers with random cars, allocating nothing per car.
+     * Rows hold the same cars as {@link #generateCars(long, long)} with the same seed, starting at {@code firstRow};
+     * brand, model and class codes refer to {@link #brandDictionary()}, {@link #modelDictionary()} and
+     * {@link #classDictionary()}.
+     *
+     * @param seed       The seed of the cars.
+     * @param firstRow   Index of the first car in the seeded sequence.
+     * @param prices     Buffer for the prices.
+     * @param epochDays  Buffer for the manufacture dates as days since 1970-01-01.
+     * @param brandCodes Buffer for the brand codes.
+     * @param modelCodes Buffer for the model codes.
+     * @param classCodes Buffer for the class codes.
+     * @param offset     Index of the buffers at which the first car is written.
+     * @param count      The number of cars to generate.
+     */
+    public static void generateColumns(long seed, long firstRow, double[] prices, int[] epochDays,
+                                       short[] brandCodes, short[] modelCodes, short[] classCodes,
+                                       int offset, int count) {
+        if (firstRow < 0) {
+            throw new IllegalArgumentException("First row must not be negative, got " + firstRow);
+        }
+        long row = firstRow;
+        int i = offset;
+        int end = offset + count;
+        while (i < end) {
+            // Every block has its own generator, exactly as in CarSpliterator; each car consumes two draws,
+            // so the cars of the block before the first row are skipped by discarding their draws
+            long block = row / CarSpliterator.BLOCK_SIZE;
+            int positionInBlock = (int) (row - block * CarSpliterator.BLOCK_SIZE);
+            SplittableRandom random = new SplittableRandom(CarSpliterator.blockSeed(seed, block));
+            for (int skipped = 0; skipped < positionInBlock; skipped++) {
+                random.nextLong();
+                random.nextLong();
+            }
+            int blockEnd = Math.min(end, i + CarSpliterator.BLOCK_SIZE - positionInBlock);
+            row += blockEnd - i;
+            for (; i < blockEnd; i++) {
+                long attributes = random.nextLong();
+                long dateAndPrice = random.nextLong();
+                int brand = brand(attributes);
+                int carClass = carClass(attributes);
+                prices[i] = price(dateAndPrice, carClass);
+                epochDays[i] = epochDay(attributes, dateAndPrice);
+                brandCodes[i] = (short) brand;
+                modelCodes[i] = (short) (MODEL_CODE_OFFSETS[brand] + model(attributes, brand));
+                classCodes[i] = (short) carClass;
+            }
+        }
+    }
+
+    /**
+     * Creates a dictionary of the generated brands, with the codes used by
+     * {@link #generateColumns(long, long, double[], int[], short[], short[], short[], int, int)}.
+     *
+     * @return a new brand dictionary.
+     */
+    public static CarDictionary brandDictionary() {
+        CarDictionary dictionary = new CarDictionary();
+        for (String brand : BRANDS) {
+            dictionary.encode(brand);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Creates a dictionary of the generated models, with the codes used by
+     * {@link #generateColumns(long, long, double[], int[], short[], short[], short[], int, int)}.
+     *
+     * @return a new model dictionary.
+     */
+    public static CarDictionary modelDictionary() {
+        CarDictionary dictionary = new CarDictionary();
+        for (String[] models : MODELS) {
+            for (String model : models) {
+                dictionary.encode(model);
+            }
+        }
+        return dictionary;
+    }
+
+    /**
+     * Creates a dictionary of the generated car classes, with the codes used by
+     * {@link #generateColumns(long, long, double[], int[], short[], short[], short[], int, int)}.
+     *
+     * @return a new class dictionary.
+     */
+    public static CarDictionary classDictionary() {
+        CarDictionary dictionary = new CarDictionary();
+        for (String carClass : CLASSES) {
+            dictionary.encode(carClass);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Generates a single random car.
+     *
+     * @param random The random generator to draw from.
+     * @return A random Car object.
+     */
+    static Car generateCar(RandomGenerator random) {
+        long attributes = random.nextLong();
+        long dateAndPrice = random.nextLong();
+        int brand = brand(attributes);
+        int carClass = carClass(attributes);
+        return new Car(
+                BRANDS[brand],
+                MODELS[brand][model(attributes, brand)],
+                LocalDate.ofEpochDay(epochDay(attributes, dateAndPrice)),
+                CLASSES[carClass],
+                price(dateAndPrice, carClass)
+        );
+    }
+
+    /**
+     * Selects a random brand from the first 16 bits of the attribute draw.
+     *
+     * @param attributes Random bits of the brand, class, model and year.
+     * @return Index of the brand.
+     */
+    private static int brand(long attributes) {
+        return uniform(attributes, 0, BRANDS.length);
+    }
+
+    /**
+     * Selects a random class from the second 16 bits of the attribute draw.
+     *
+     * @param attributes Random bits of the brand, class, model and year.
+     * @return Index of the class.
+     */
+    private static int carClass(long attributes) {
+        return uniform(attributes, 16, CLASSES.length);
+    }
+
+    /**
+     * Selects a random model of the brand from the third 16 bits of the attribute draw.
+     *
+     * @param attributes Random bits of the brand, class, model and year.
+     * @param brand      Index of the brand for which a random model will be selected.
+     * @return Index of the model within the brand.
+     */
+    private static int model(long attributes, int brand) {
+        return uniform(attributes, 32, MODELS[brand].length);
+    }
+
+    /**
+     * Generates a random manufacturing date: a random year from the last 16 bits of the attribute draw,
+     * then a random day of that year from the low half of the date and price draw.
+     *
+     * @param attributes   Random bits of the brand, class, model and year.
+     * @param dateAndPrice Random bits of the day of year and the price.
+     * @return the manufacturing date as a number of days since 1970-01-01.
      */
-    private static double generatePriceForClass(String carClass) {
-        return switch (carClass) {
-            case "A" -> Math.floor(2_000_000 + (RANDOM.nextDouble() * 3_000_000));
-            case "B" -> Math.floor(800_000 + (RANDOM.nextDouble() * 1_200_000));
-            case "C" -> Math.floor(300_000 + (RANDOM.nextDouble() * 500_000));
-            case "D" -> Math.floor(100_000 + (RANDOM.nextDouble() * 200_000));
-            default -> 500_000;
-        };
+    private static int epochDay(long attributes, long dateAndPrice) {
+        int year = uniform(attributes, 48, END_YEAR - FIRST_YEAR);
+        int yearLength = YEAR_START_EPOCH_DAYS[year + 1] - YEAR_START_EPOCH_DAYS[year];
+        return YEAR_START_EPOCH_DAYS[year] + (int) (((dateAndPrice & 0xFFFFFFFFL) * yearLength) >>> 32);
     }
 
     /**
-     * Generates a random manufacturing date for the car.
+     * Generates a random price based on the class of the car from the high half of the date and price draw.
      *
-     * @return A randomly generated {@link LocalDate} object representing the manufacturing date.
+     * @param dateAndPrice Random bits of the day of year and the price.
+     * @param carClass     Index of the class of the car (A, B, C, or D).
+     * @return A randomly generated price for the car based on its class.
+     */
+    private static double price(long dateAndPrice, int carClass) {
+        double fraction = (dateAndPrice >>> 32) * 0x1.0p-32;
+        return Math.floor(CLASS_PRICE_BASES[carClass] + fraction * CLASS_PRICE_RANGES[carClass]);
+    }
+
+    /**
+     * Maps 16 random bits at the given position to {@code [0, bound)} with a multiply and shift instead of a division.
+     */
+    private static int uniform(long bits, int shift, int bound) {
+        return (int) ((((bits >>> shift) & 0xFFFF) * bound) >>> 16);
+    }
+
+    /**
+     * Translates generator codes of a column range into the codes of a table dictionary.
+     */
+    private static void recode(short[] codes, int[] mapping, int offset, int count) {
+        boolean identity = true;
+        for (int code = 0; code < mapping.length; code++) {
+            identity &= mapping[code] == code;
+        }
+        if (identity) {
+            return;
+        }
+        for (int i = offset; i < offset + count; i++) {
+            codes[i] = (short) mapping[codes[i]];
+        }
+    }
+
+    /**
+     * Computes the first flattened model code of every brand.
+     */
+    private static int[] modelCodeOffsets() {
+        int[] offsets = new int[MODELS.length];
+        for (int brand = 1; brand < MODELS.length; brand++) {
+            offsets[brand] = offsets[brand - 1] + MODELS[brand - 1].length;
+        }
+        return offsets;
+    }
+
+    /**
+     * Computes the epoch day of January 1st of every generated year, plus the year after the last one.
      */
-    private static LocalDate generateRandomDate() {
-        int year = RANDOM.nextInt(2005, 2025);
-        int dayOfYear = RANDOM.nextInt(1, LocalDate.of(year, 12, 31).lengthOfYear() + 1);
-        return LocalDate.ofYearDay(year, dayOfYear);
+    private static int[] yearStartEpochDays() {
+        int[] days = new int[END_YEAR - FIRST_YEAR + 1];
+        for (int year = FIRST_YEAR; year <= END_YEAR; year++) {
+            days[year - FIRST_YEAR] = (int) LocalDate.of(year, 1, 1).toEpochDay();
+        }
+        return days;
     }
 }
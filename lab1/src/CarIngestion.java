@@ -0,0 +1,241 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Pipeline that reads cars from many {@link CarSource}s at once and merges them into a single stream.
+ * Every source is read on its own virtual thread, so hundreds of slow files or sockets only cost a few platform
+ * threads, and a source waiting for data never holds up the others. Sources hand their parsed {@link CarTable} batches
+ * to one bounded queue: when the consumer falls behind, the queue fills up and the sources park until there is space
+ * again, which bounds the memory held by batches in flight.
+ * The merged stream plugs into the usual {@link CarGatherer}, filter and statistics pipeline; batches arrive in the
+ * order they were read, so cars of different sources interleave. Per-source throughput is tracked in
+ * {@link SourceStatistics}. The first source failure is rethrown to the consumer, and closing the ingestion
+ * cancels the sources that are still being read.
+ */
+public class CarIngestion implements AutoCloseable {
+    /**
+     * Default number of batches the queue holds before the sources are blocked.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private static final long POLL_MILLIS = 10;
+
+    private final List<CarSource> sources;
+    private final List<SourceStatistics> statistics;
+    private final BlockingQueue<CarTable> queue;
+    private final AtomicInteger running;
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private ExecutorService executor;
+    private volatile boolean closed;
+
+    /**
+     * Constructs an ingestion of the given sources with the default queue capacity.
+     *
+     * @param sources The sources to read.
+     */
+    public CarIngestion(List<? extends CarSource> sources) {
+        this(sources, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructs an ingestion of the given sources.
+     *
+     * @param sources       The sources to read.
+     * @param queueCapacity Number of batches the queue holds before the sources are blocked.
+     */
+    public CarIngestion(List<? extends CarSource> sources, int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive, got " + queueCapacity);
+        }
+        this.sources = List.copyOf(sources);
+        List<SourceStatistics> statistics = new ArrayList<>(this.sources.size());
+        for (CarSource source : this.sources) {
+            statistics.add(new SourceStatistics(source.getName()));
+        }
+        this.statistics = List.copyOf(statistics);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.running = new AtomicInteger(this.sources.size());
+    }
+
+    /**
+     * Starts reading all sources, one virtual thread per source.
+     * Called implicitly by {@link #batches()} and {@link #stream()}.
+     *
+     * @return this ingestion.
+     */
+    public synchronized CarIngestion start() {
+        if (closed) {
+            throw new IllegalStateException("Ingestion is closed");
+        }
+        if (executor != null) {
+            throw new IllegalStateException("Ingestion has already been started");
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < sources.size(); i++) {
+            CarSource source = sources.get(i);
+            SourceStatistics sourceStatistics = statistics.get(i);
+            executor.execute(() -> read(source, sourceStatistics));
+        }
+        return this;
+    }
+
+    /**
+     * Streams the batches of all sources as they arrive, starting the ingestion if needed.
+     * Closing the stream closes the ingestion.
+     *
+     * @return a stream of batches.
+     * @throws UncheckedIOException while consuming the stream, if a source cannot be read.
+     */
+    public Stream<CarTable> batches() {
+        synchronized (this) {
+            if (executor == null) {
+                start();
+            }
+        }
+        Spliterator<CarTable> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super CarTable> action) {
+                CarTable batch = nextBatch();
+                if (batch == null) {
+                    return false;
+                }
+                action.accept(batch);
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * Streams the cars of all sources as they arrive, starting the ingestion if needed.
+     * Closing the stream closes the ingestion.
+     *
+     * @return a stream of cars.
+     * @throws UncheckedIOException while consuming the stream, if a source cannot be read.
+     */
+    public Stream<Car> stream() {
+        return batches().flatMap(CarTable::stream);
+    }
+
+    /**
+     * Gets the throughput counters of the sources, in the order of the sources.
+     * The counters are live and can be polled while the ingestion runs.
+     *
+     * @return the statistics of each source.
+     */
+    public List<SourceStatistics> getSourceStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Cancels the sources that are still being read and waits for their threads to finish.
+     * Batches left in the queue are discarded.
+     */
+    @Override
+    public void close() {
+        ExecutorService started;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            started = executor;
+        }
+        if (started != null) {
+            started.shutdownNow();
+            started.close();
+        }
+        queue.clear();
+    }
+
+    /**
+     * Reads one source on its virtual thread, putting its batches into the queue.
+     */
+    private void read(CarSource source, SourceStatistics sourceStatistics) {
+        sourceStatistics.start();
+        Throwable error = null;
+        try {
+            source.read((batch, bytes) -> {
+                long waitStart = System.nanoTime();
+                if (batch.size() > 0) {
+                    queue.put(batch);
+                }
+                sourceStatistics.recordBatch(batch.size(), bytes, System.nanoTime() - waitStart);
+            });
+        } catch (InterruptedException e) {
+            error = e;
+        } catch (IOException e) {
+            error = e;
+            fail(new UncheckedIOException("Cannot read " + source.getName(), e));
+        } catch (RuntimeException e) {
+            error = e;
+            fail(e);
+        } catch (Error e) {
+            error = e;
+            fail(new IllegalStateException("Cannot read " + source.getName(), e));
+        } finally {
+            sourceStatistics.finish(error);
+            running.decrementAndGet();
+        }
+    }
+
+    /**
+     * Records the first failure of a source, unless it was caused by closing the ingestion.
+     */
+    private void fail(RuntimeException error) {
+        if (!closed) {
+            failure.compareAndSet(null, error);
+        }
+    }
+
+    /**
+     * Waits for the next batch of any source.
+     *
+     * @return the batch, or {@code null} once all sources are read and the queue is drained.
+     */
+    private CarTable nextBatch() {
+        try {
+            while (true) {
+                throwFailure();
+                if (running.get() == 0) {
+                    // A source records its failure before it stops running, so check again after seeing the end;
+                    // every batch was queued before its source finished, so an empty queue means the end
+                    throwFailure();
+                    return queue.poll();
+                }
+                CarTable batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    return batch;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for cars", e);
+        }
+    }
+
+    /**
+     * Rethrows the first failure of a source, if any.
+     */
+    private void throwFailure() {
+        RuntimeException error = failure.get();
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Source of car records in the CSV format of {@link CarCsvReader}, read by {@link CarIngestion}.
+ * A source delivers its cars as a sequence of {@link CarTable} batches and may block while reading,
+ * since every source runs on its own virtual thread.
+ */
+public interface CarSource {
+
+    /**
+     * Gets the name of the source used in throughput reports.
+     *
+     * @return the name of the source.
+     */
+    String getName();
+
+    /**
+     * Reads all cars of the source and passes them to the consumer in batches.
+     *
+     * @param consumer The consumer of the batches; it blocks while the ingestion queue is full.
+     * @throws IOException          if the source cannot be read or contains a malformed record.
+     * @throws InterruptedException if the reading thread is interrupted, e.g. because the ingestion was closed.
+     */
+    void read(BatchConsumer consumer) throws IOException, InterruptedException;
+
+    /**
+     * Consumer of the batches read from a source.
+     */
+    @FunctionalInterface
+    interface BatchConsumer {
+        /**
+         * Accepts a batch of cars.
+         *
+         * @param batch The parsed cars.
+         * @param bytes Number of source bytes the batch was parsed from.
+         * @throws InterruptedException if the thread is interrupted while waiting for space in the queue.
+         */
+        void accept(CarTable batch, long bytes) throws InterruptedException;
+    }
+
+    /**
+     * Creates a source reading a CSV file.
+     *
+     * @param path Path of the file.
+     * @return the file source.
+     */
+    static CarSource file(Path path) {
+        return new ChannelCarSource(path.toString(), () -> FileChannel.open(path));
+    }
+
+    /**
+     * Creates one source per CSV file of a directory of exports, ordered by file name.
+     *
+     * @param directory Path of the directory.
+     * @return the sources of the {@code *.csv} files in the directory.
+     * @throws IOException if the directory cannot be listed.
+     */
+    static List<CarSource> directory(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*.csv")) {
+            for (Path entry : entries) {
+                if (Files.isRegularFile(entry)) {
+                    files.add(entry);
+                }
+            }
+        }
+        files.sort(null);
+        List<CarSource> sources = new ArrayList<>(files.size());
+        for (Path file : files) {
+            sources.add(file(file));
+        }
+        return sources;
+    }
+
+    /**
+     * Creates a source reading records from a socket until the peer closes the connection.
+     * Both TCP and Unix domain socket addresses are supported.
+     *
+     * @param address Address to connect to.
+     * @return the socket source.
+     */
+    static CarSource socket(SocketAddress address) {
+        return new ChannelCarSource(address.toString(), () -> SocketChannel.open(address));
+    }
+
+    /**
+     * Creates a source reading records from a channel opened on demand, e.g. a pipe or a decompressing stream.
+     * Channels that block inside {@code synchronized} code, such as {@code Channels.newChannel(InputStream)} over a
+     * slow stream, pin the carrier thread of the virtual thread while they wait and should be avoided for slow sources.
+     *
+     * @param name   Name of the source.
+     * @param opener Opens the channel when the source is read; the channel is closed afterwards.
+     * @return the channel source.
+     */
+    static CarSource channel(String name, Callable<? extends ReadableByteChannel> opener) {
+        return new ChannelCarSource(name, opener);
+    }
+
+    /**
+     * Resolves command-line locations into sources: {@code host:port} is a TCP socket, a directory contributes
+     * one source per CSV file, and anything else is a file.
+     *
+     * @param locations The locations to resolve.
+     * @return the sources, in the order of the locations.
+     * @throws UncheckedIOException if a directory cannot be listed.
+     */
+    static List<CarSource> of(String... locations) {
+        Pattern socketPattern = Pattern.compile("([^/\\\\:]+):(\\d{1,5})");
+        List<CarSource> sources = new ArrayList<>();
+        for (String location : locations) {
+            Path path = Path.of(location);
+            Matcher socket = socketPattern.matcher(location);
+            try {
+                if (Files.isDirectory(path)) {
+                    sources.addAll(directory(path));
+                } else if (!Files.exists(path) && socket.matches()) {
+                    sources.add(socket(new InetSocketAddress(socket.group(1), Integer.parseInt(socket.group(2)))));
+                } else {
+                    sources.add(file(path));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot list " + location, e);
+            }
+        }
+        return sources;
+    }
+}
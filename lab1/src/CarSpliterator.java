@@ -0,0 +1,109 @@
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over a range of synthetic cars produced by {@link CarGenerator}.
+ * Car indices are grouped into fixed-size blocks, and every block draws from its own {@link SplittableRandom}
+ * seeded from the stream seed and the block index. Splits always happen on block boundaries, so a given seed
+ * produces the same cars in the same order no matter how the range is split across threads.
+ */
+public class CarSpliterator implements Spliterator<Car> {
+    /**
+     * Number of consecutive cars generated from one block generator.
+     */
+    static final int BLOCK_SIZE = 1024;
+
+    private final long seed;
+    private long index;
+    private final long fence;
+    private SplittableRandom random;
+
+    /**
+     * Constructs a spliterator over the cars with indices {@code [origin, fence)}.
+     *
+     * @param seed   Seed of the generated stream.
+     * @param origin Index of the first car (inclusive); must be a multiple of the block size.
+     * @param fence  Index of the last car (exclusive), or {@link Long#MAX_VALUE} for an unbounded stream.
+     */
+    public CarSpliterator(long seed, long origin, long fence) {
+        if (origin % BLOCK_SIZE != 0) {
+            throw new IllegalArgumentException("Origin must be aligned to " + BLOCK_SIZE + " cars");
+        }
+        this.seed = seed;
+        this.index = origin;
+        this.fence = fence;
+    }
+
+    /**
+     * Constructs a prefix spliterator that continues with an already positioned block generator.
+     */
+    private CarSpliterator(long seed, long index, long fence, SplittableRandom random) {
+        this.seed = seed;
+        this.index = index;
+        this.fence = fence;
+        this.random = random;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Car> action) {
+        if (index >= fence) {
+            return false;
+        }
+        action.accept(CarGenerator.generateCar(nextRandom()));
+        index++;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Car> action) {
+        while (index < fence) {
+            action.accept(CarGenerator.generateCar(nextRandom()));
+            index++;
+        }
+    }
+
+    @Override
+    public Spliterator<Car> trySplit() {
+        long half = (fence - index) >>> 1;
+        long mid = (index + half + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+        if (mid <= index || mid >= fence) {
+            return null;
+        }
+        CarSpliterator prefix = new CarSpliterator(seed, index, mid, random);
+        index = mid;
+        random = null;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | NONNULL | IMMUTABLE;
+        return fence == Long.MAX_VALUE ? characteristics : characteristics | SIZED | SUBSIZED;
+    }
+
+    /**
+     * Returns the generator for the current car, switching to a fresh block generator on block boundaries.
+     */
+    private SplittableRandom nextRandom() {
+        if (random == null || index % BLOCK_SIZE == 0) {
+            random = new SplittableRandom(blockSeed(seed, index / BLOCK_SIZE));
+        }
+        return random;
+    }
+
+    /**
+     * Derives a well-mixed block seed from the stream seed and the block index.
+     */
+    static long blockSeed(long seed, long block) {
+        long z = seed + block * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -7,6 +7,8 @@ class CarStatistics {
     private final double maxPrice;
     private final double avgPrice;
     private final double stdDeviation;
+    private final long count;
+    private final long outlierCount;
 
     /**
      * Constructs a CarStatistics object with the specified statistical values.
@@ -17,19 +19,89 @@ class CarStatistics {
      * @param stdDeviation The standard deviation of the car prices.
      */
     public CarStatistics(double minPrice, double maxPrice, double avgPrice, double stdDeviation) {
+        this(minPrice, maxPrice, avgPrice, stdDeviation, 0, 0);
+    }
+
+    /**
+     * Constructs a CarStatistics object that also records how many cars it covers and how many of them are outliers.
+     *
+     * @param minPrice     The minimum price among the cars.
+     * @param maxPrice     The maximum price among the cars.
+     * @param avgPrice     The average price of the cars.
+     * @param stdDeviation The standard deviation of the car prices.
+     * @param count        The number of cars.
+     * @param outlierCount The number of cars whose price lies outside of the IQR outlier bounds.
+     */
+    public CarStatistics(double minPrice, double maxPrice, double avgPrice, double stdDeviation,
+                         long count, long outlierCount) {
         this.minPrice = minPrice;
         this.maxPrice = maxPrice;
         this.avgPrice = avgPrice;
         this.stdDeviation = stdDeviation;
+        this.count = count;
+        this.outlierCount = outlierCount;
+    }
+
+    /**
+     * Gets the minimum price among the cars.
+     *
+     * @return the minimum price.
+     */
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    /**
+     * Gets the maximum price among the cars.
+     *
+     * @return the maximum price.
+     */
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * Gets the average price of the cars.
+     *
+     * @return the average price.
+     */
+    public double getAvgPrice() {
+        return avgPrice;
+    }
+
+    /**
+     * Gets the standard deviation of the car prices.
+     *
+     * @return the standard deviation.
+     */
+    public double getStdDeviation() {
+        return stdDeviation;
+    }
+
+    /**
+     * Gets the number of cars the statistics cover.
+     *
+     * @return the number of cars, or 0 if it was not recorded.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of cars whose price lies outside of the IQR outlier bounds.
+     *
+     * @return the number of outliers, or 0 if they were not counted.
+     */
+    public long getOutlierCount() {
+        return outlierCount;
     }
 
     /**
      * Prints the car statistics.
      */
     public void getStats() {
-        System.out.printf("\nMin price: %.2f UAH", minPrice);
-        System.out.printf("\nMax price: %.2f UAH", maxPrice);
-        System.out.printf("\nAverage price: %.2f UAH", avgPrice);
-        System.out.printf("\nStandard Deviation price: %.2f UAH", stdDeviation);
+        try (ReportWriter report = ReportWriter.stdout()) {
+            report.writeStatistics(this);
+        }
     }
 }
\ No newline at end of file
@@ -1,5 +1,3 @@
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
@@ -9,43 +7,32 @@ import java.util.stream.Collector;
 
 /**
  * A custom collector that calculates various statistics for car prices such as minimum, maximum, average price, and standard deviation.
+ * The statistics are computed in a single pass with a constant-size {@link PriceMoments} accumulator per stream segment.
  */
-public class CarStatisticsCollector implements Collector<Car, List<Double>, CarStatistics> {
+public class CarStatisticsCollector implements Collector<Car, PriceMoments, CarStatistics> {
 
     @Override
-    public Supplier<List<Double>> supplier() {
-        return ArrayList::new;
+    public Supplier<PriceMoments> supplier() {
+        return PriceMoments::new;
     }
 
     @Override
-    public BiConsumer<List<Double>, Car> accumulator() {
-        return (list, car) -> list.add(car.getPrice());
+    public BiConsumer<PriceMoments, Car> accumulator() {
+        return (moments, car) -> moments.accept(car.getPrice());
     }
 
     @Override
-    public BinaryOperator<List<Double>> combiner() {
-        return (list1, list2) -> {
-            list1.addAll(list2);
-            return list1;
-        };
+    public BinaryOperator<PriceMoments> combiner() {
+        return PriceMoments::merge;
     }
 
     @Override
-    public Function<List<Double>, CarStatistics> finisher() {
-        return listOfPrices -> {
-            double minPrice = listOfPrices.stream().mapToDouble(Double::doubleValue).min().orElse(0.0);
-            double maxPrice = listOfPrices.stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
-
-            double averagePrice = listOfPrices.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-            double variance = listOfPrices.stream().mapToDouble(i -> Math.pow(i - averagePrice, 2)).average().orElse(0.0);
-            double standardDeviation = Math.sqrt(variance);
-
-            return new CarStatistics(minPrice, maxPrice, averagePrice, standardDeviation);
-        };
+    public Function<PriceMoments, CarStatistics> finisher() {
+        return PriceMoments::toStatistics;
     }
 
     @Override
     public Set<Characteristics> characteristics() {
-        return Set.of();
+        return Set.of(Characteristics.UNORDERED);
     }
 }
@@ -0,0 +1,407 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Columnar (struct-of-arrays) storage for cars.
+ * Prices are kept in a primitive {@code double} column, manufacture dates as epoch days in an {@code int} column,
+ * and brand, model and class as 16-bit dictionary codes, which takes 18 bytes of heap per car.
+ */
+public class CarTable {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private final CarDictionary brands;
+    private final CarDictionary models;
+    private final CarDictionary classes;
+
+    private double[] prices;
+    private int[] epochDays;
+    private short[] brandCodes;
+    private short[] modelCodes;
+    private short[] classCodes;
+    private int size;
+
+    /**
+     * Constructs an empty table with its own dictionaries.
+     */
+    public CarTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty table with its own dictionaries and the given initial capacity.
+     *
+     * @param capacity Initial number of rows the table can hold without growing.
+     */
+    public CarTable(int capacity) {
+        this(new CarDictionary(), new CarDictionary(), new CarDictionary(), capacity);
+    }
+
+    /**
+     * Constructs an empty table that encodes values with the given (possibly shared) dictionaries.
+     *
+     * @param brands   Dictionary for car brands.
+     * @param models   Dictionary for car models.
+     * @param classes  Dictionary for car classes.
+     * @param capacity Initial number of rows the table can hold without growing.
+     */
+    public CarTable(CarDictionary brands, CarDictionary models, CarDictionary classes, int capacity) {
+        this.brands = brands;
+        this.models = models;
+        this.classes = classes;
+        this.prices = new double[capacity];
+        this.epochDays = new int[capacity];
+        this.brandCodes = new short[capacity];
+        this.modelCodes = new short[capacity];
+        this.classCodes = new short[capacity];
+    }
+
+    /**
+     * Appends a car to the table.
+     *
+     * @param car The car to append.
+     */
+    public void add(Car car) {
+        add(car.getBrand(), car.getModel(), car.getManufactureDate(), car.getCarClass(), car.getPrice());
+    }
+
+    /**
+     * Appends a car given by its attribute values.
+     *
+     * @param brand           The car brand.
+     * @param model           The car model.
+     * @param manufactureDate The manufacture date.
+     * @param carClass        The class of the car.
+     * @param price           The price of the car.
+     */
+    public void add(String brand, String model, LocalDate manufactureDate, String carClass, double price) {
+        addEncoded(brands.encode(brand), models.encode(model), classes.encode(carClass),
+                (int) manufactureDate.toEpochDay(), price);
+    }
+
+    /**
+     * Appends a car whose attributes are already encoded with this table's dictionaries.
+     *
+     * @param brandCode Code of the brand.
+     * @param modelCode Code of the model.
+     * @param classCode Code of the class.
+     * @param epochDay  Manufacture date as a number of days since 1970-01-01.
+     * @param price     The price of the car.
+     */
+    public void addEncoded(int brandCode, int modelCode, int classCode, int epochDay, double price) {
+        if (size == prices.length) {
+            ensureCapacity(size + 1);
+        }
+        prices[size] = price;
+        epochDays[size] = epochDay;
+        brandCodes[size] = (short) brandCode;
+        modelCodes[size] = (short) modelCode;
+        classCodes[size] = (short) classCode;
+        size++;
+    }
+
+    /**
+     * Appends all rows of another table, re-encoding them if the tables use different dictionaries.
+     *
+     * @param other The table whose rows are appended.
+     */
+    public void addAll(CarTable other) {
+        int otherSize = other.size;
+        ensureCapacity(size + otherSize);
+        System.arraycopy(other.prices, 0, prices, size, otherSize);
+        System.arraycopy(other.epochDays, 0, epochDays, size, otherSize);
+        copyCodes(other.brandCodes, brandCodes, other.brands, brands, otherSize);
+        copyCodes(other.modelCodes, modelCodes, other.models, models, otherSize);
+        copyCodes(other.classCodes, classCodes, other.classes, classes, otherSize);
+        size += otherSize;
+    }
+
+    /**
+     * Extends the table over rows that were already written into the backing columns past the current size,
+     * e.g. by {@link CarGenerator#generateInto(CarTable, long, long, int)}.
+     *
+     * @param count The number of written rows.
+     */
+    void addWritten(int count) {
+        if (count < 0 || size + count > prices.length) {
+            throw new IllegalArgumentException("Cannot add " + count + " written rows to a table of size " + size
+                    + " and capacity " + prices.length);
+        }
+        size += count;
+    }
+
+    /**
+     * Copies a code column into this table, translating codes between dictionaries when needed.
+     */
+    private void copyCodes(short[] source, short[] target, CarDictionary sourceDictionary,
+                           CarDictionary targetDictionary, int count) {
+        if (sourceDictionary == targetDictionary) {
+            System.arraycopy(source, 0, target, size, count);
+            return;
+        }
+        int[] remap = new int[sourceDictionary.size()];
+        for (int code = 0; code < remap.length; code++) {
+            remap[code] = targetDictionary.encode(sourceDictionary.decode(code));
+        }
+        for (int i = 0; i < count; i++) {
+            target[size + i] = (short) remap[Short.toUnsignedInt(source[i])];
+        }
+    }
+
+    /**
+     * Makes sure the table can hold at least the given number of rows without growing.
+     * The columns at least double when they grow, but never beyond the largest array the VM can allocate.
+     *
+     * @param capacity The required number of rows.
+     * @throws OutOfMemoryError if the required number of rows exceeds the largest array size, including a negative
+     *                          capacity that results from an overflowing sum of row counts.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity < 0 || capacity > MAX_CAPACITY) {
+            throw new OutOfMemoryError("Cannot hold " + Integer.toUnsignedLong(capacity)
+                    + " cars in a table, the maximum is " + MAX_CAPACITY);
+        }
+        if (capacity <= prices.length) {
+            return;
+        }
+        int newCapacity = (int) Math.max(capacity, Math.min(MAX_CAPACITY, prices.length * 2L));
+        prices = Arrays.copyOf(prices, newCapacity);
+        epochDays = Arrays.copyOf(epochDays, newCapacity);
+        brandCodes = Arrays.copyOf(brandCodes, newCapacity);
+        modelCodes = Arrays.copyOf(modelCodes, newCapacity);
+        classCodes = Arrays.copyOf(classCodes, newCapacity);
+    }
+
+    /**
+     * Gets the number of cars in the table.
+     *
+     * @return the number of cars.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the price of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the price of the car.
+     */
+    public double getPrice(int row) {
+        return prices[row];
+    }
+
+    /**
+     * Gets the manufacture date of the car in the given row as an epoch day.
+     *
+     * @param row Index of the row.
+     * @return the number of days since 1970-01-01.
+     */
+    public int getEpochDay(int row) {
+        return epochDays[row];
+    }
+
+    /**
+     * Gets the manufacture date of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the manufacture date.
+     */
+    public LocalDate getManufactureDate(int row) {
+        return LocalDate.ofEpochDay(epochDays[row]);
+    }
+
+    /**
+     * Gets the manufacture year of the car in the given row without creating a {@link LocalDate}.
+     *
+     * @param row Index of the row.
+     * @return the manufacture year.
+     */
+    public int getManufactureYear(int row) {
+        return yearOfEpochDay(epochDays[row]);
+    }
+
+    /**
+     * Gets the brand code of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the code of the brand in {@link #getBrands()}.
+     */
+    public int getBrandCode(int row) {
+        return Short.toUnsignedInt(brandCodes[row]);
+    }
+
+    /**
+     * Gets the model code of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the code of the model in {@link #getModels()}.
+     */
+    public int getModelCode(int row) {
+        return Short.toUnsignedInt(modelCodes[row]);
+    }
+
+    /**
+     * Gets the class code of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the code of the class in {@link #getClasses()}.
+     */
+    public int getClassCode(int row) {
+        return Short.toUnsignedInt(classCodes[row]);
+    }
+
+    /**
+     * Gets the brand of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the brand of the car.
+     */
+    public String getBrand(int row) {
+        return brands.decode(getBrandCode(row));
+    }
+
+    /**
+     * Gets the model of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the model of the car.
+     */
+    public String getModel(int row) {
+        return models.decode(getModelCode(row));
+    }
+
+    /**
+     * Gets the class of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the class of the car.
+     */
+    public String getCarClass(int row) {
+        return classes.decode(getClassCode(row));
+    }
+
+    /**
+     * Materializes the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return a new {@link Car} with the row's values.
+     */
+    public Car getCar(int row) {
+        return new Car(getBrand(row), getModel(row), getManufactureDate(row), getCarClass(row), prices[row]);
+    }
+
+    /**
+     * Gets the brand dictionary.
+     *
+     * @return the brand dictionary.
+     */
+    public CarDictionary getBrands() {
+        return brands;
+    }
+
+    /**
+     * Gets the model dictionary.
+     *
+     * @return the model dictionary.
+     */
+    public CarDictionary getModels() {
+        return models;
+    }
+
+    /**
+     * Gets the class dictionary.
+     *
+     * @return the class dictionary.
+     */
+    public CarDictionary getClasses() {
+        return classes;
+    }
+
+    /**
+     * Gets the backing price column. Only the first {@link #size()} entries are valid,
+     * and the array is replaced when the table grows.
+     *
+     * @return the backing price array.
+     */
+    public double[] getPriceColumn() {
+        return prices;
+    }
+
+    /**
+     * Gets the backing epoch-day column. Only the first {@link #size()} entries are valid,
+     * and the array is replaced when the table grows.
+     *
+     * @return the backing epoch-day array.
+     */
+    public int[] getEpochDayColumn() {
+        return epochDays;
+    }
+
+    /**
+     * Gets the backing brand code column. Codes are unsigned 16-bit values, only the first {@link #size()}
+     * entries are valid, and the array is replaced when the table grows.
+     *
+     * @return the backing brand code array.
+     */
+    public short[] getBrandCodeColumn() {
+        return brandCodes;
+    }
+
+    /**
+     * Gets the backing model code column. Codes are unsigned 16-bit values, only the first {@link #size()}
+     * entries are valid, and the array is replaced when the table grows.
+     *
+     * @return the backing model code array.
+     */
+    public short[] getModelCodeColumn() {
+        return modelCodes;
+    }
+
+    /**
+     * Gets the backing class code column. Codes are unsigned 16-bit values, only the first {@link #size()}
+     * entries are valid, and the array is replaced when the table grows.
+     *
+     * @return the backing class code array.
+     */
+    public short[] getClassCodeColumn() {
+        return classCodes;
+    }
+
+    /**
+     * Streams the prices of all cars without materializing them.
+     *
+     * @return a stream of prices.
+     */
+    public DoubleStream prices() {
+        return Arrays.stream(prices, 0, size);
+    }
+
+    /**
+     * Streams all cars, materializing each row as a {@link Car}.
+     *
+     * @return a stream of cars.
+     */
+    public Stream<Car> stream() {
+        return IntStream.range(0, size).mapToObj(this::getCar);
+    }
+
+    /**
+     * Gets the year of an epoch day without creating a {@link LocalDate}.
+     *
+     * @param epochDay The number of days since 1970-01-01.
+     * @return the proleptic year.
+     */
+    static int yearOfEpochDay(long epochDay) {
+        long days = epochDay + 719_468;
+        long era = Math.floorDiv(days, 146_097);
+        long dayOfEra = days - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        // Days from March 1st; January and February (day 306 onward) belong to the next calendar year
+        return (int) (yearOfEra + era * 400 + (dayOfYear >= 306 ? 1 : 0));
+    }
+}
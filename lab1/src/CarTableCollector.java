@@ -0,0 +1,40 @@
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * A custom collector that stores cars in a columnar {@link CarTable} instead of a list of objects.
+ */
+public class CarTableCollector implements Collector<Car, CarTable, CarTable> {
+
+    @Override
+    public Supplier<CarTable> supplier() {
+        return CarTable::new;
+    }
+
+    @Override
+    public BiConsumer<CarTable, Car> accumulator() {
+        return CarTable::add;
+    }
+
+    @Override
+    public BinaryOperator<CarTable> combiner() {
+        return (table1, table2) -> {
+            table1.addAll(table2);
+            return table1;
+        };
+    }
+
+    @Override
+    public Function<CarTable, CarTable> finisher() {
+        return Function.identity();
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Set.of(Characteristics.IDENTITY_FINISH);
+    }
+}
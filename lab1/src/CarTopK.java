@@ -0,0 +1,81 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The {@code k} cheapest or most expensive cars of every group, e.g. the 100 cheapest cars per class.
+ * Each group keeps a bounded heap keyed on the primitive price, so memory stays at O(k) cars per group and adding
+ * n cars costs O(n log k) instead of sorting the whole groups. Accumulators over different stream segments are
+ * merged heap by heap, which makes them usable from parallel streams through {@link CarTopKCollector}.
+ *
+ * @param <K> Type of the group keys.
+ */
+public class CarTopK<K> {
+    private final int k;
+    private final boolean cheapest;
+    private final Function<? super Car, ? extends K> classifier;
+    private final Map<K, PriceHeap<Car>> groups = new HashMap<>();
+
+    /**
+     * Constructs an empty accumulator.
+     *
+     * @param k          Number of cars kept per group.
+     * @param cheapest   Whether to keep the cheapest cars rather than the most expensive.
+     * @param classifier Function giving the group of a car, e.g. {@code Car::getCarClass}.
+     */
+    public CarTopK(int k, boolean cheapest, Function<? super Car, ? extends K> classifier) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Number of kept cars must be positive, got " + k);
+        }
+        this.k = k;
+        this.cheapest = cheapest;
+        this.classifier = classifier;
+    }
+
+    /**
+     * Offers a car to its group.
+     *
+     * @param car The car to offer.
+     */
+    public void accept(Car car) {
+        groups.computeIfAbsent(classifier.apply(car), key -> new PriceHeap<>(k, cheapest))
+                .offer(car.getPrice(), car);
+    }
+
+    /**
+     * Merges another accumulator with the same bounds into this one.
+     *
+     * @param other The accumulator to merge.
+     * @return this accumulator.
+     */
+    public CarTopK<K> merge(CarTopK<K> other) {
+        if (other.k != k || other.cheapest != cheapest) {
+            throw new IllegalArgumentException("Cannot merge top-" + other.k + " into top-" + k + " cars");
+        }
+        other.groups.forEach((key, heap) ->
+                groups.computeIfAbsent(key, newKey -> new PriceHeap<>(k, cheapest)).merge(heap));
+        return this;
+    }
+
+    /**
+     * Gets the number of groups with at least one car.
+     *
+     * @return the number of groups.
+     */
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    /**
+     * Lists the kept cars of every group, from the best price to the worst.
+     * The accumulator is not changed and can keep accepting cars.
+     *
+     * @return a new map from each group to its cars.
+     */
+    public Map<K, List<Car>> toMap() {
+        Map<K, List<Car>> result = new HashMap<>();
+        groups.forEach((key, heap) -> result.put(key, heap.toSortedList()));
+        return result;
+    }
+}
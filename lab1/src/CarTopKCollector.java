@@ -0,0 +1,86 @@
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * A custom collector that finds the {@code k} cheapest or most expensive cars per group with bounded heaps
+ * ({@link CarTopK}), instead of sorting the full groups built by {@code groupingBy}.
+ * The cars of each group are listed from the best price to the worst.
+ *
+ * @param <K> Type of the group keys.
+ */
+public class CarTopKCollector<K> implements Collector<Car, CarTopK<K>, Map<K, List<Car>>> {
+    private final int k;
+    private final boolean cheapest;
+    private final Function<? super Car, ? extends K> classifier;
+
+    /**
+     * Constructs a top-k collector.
+     *
+     * @param k          Number of cars kept per group.
+     * @param cheapest   Whether to keep the cheapest cars rather than the most expensive.
+     * @param classifier Function giving the group of a car.
+     */
+    public CarTopKCollector(int k, boolean cheapest, Function<? super Car, ? extends K> classifier) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Number of kept cars must be positive, got " + k);
+        }
+        this.k = k;
+        this.cheapest = cheapest;
+        this.classifier = classifier;
+    }
+
+    /**
+     * Creates a collector of the {@code k} cheapest cars per group.
+     *
+     * @param k          Number of cars kept per group.
+     * @param classifier Function giving the group of a car, e.g. {@code Car::getCarClass}.
+     * @param <K>        Type of the group keys.
+     * @return the collector.
+     */
+    public static <K> CarTopKCollector<K> cheapest(int k, Function<? super Car, ? extends K> classifier) {
+        return new CarTopKCollector<>(k, true, classifier);
+    }
+
+    /**
+     * Creates a collector of the {@code k} most expensive cars per group.
+     *
+     * @param k          Number of cars kept per group.
+     * @param classifier Function giving the group of a car, e.g. {@code Car::getBrand}.
+     * @param <K>        Type of the group keys.
+     * @return the collector.
+     */
+    public static <K> CarTopKCollector<K> mostExpensive(int k, Function<? super Car, ? extends K> classifier) {
+        return new CarTopKCollector<>(k, false, classifier);
+    }
+
+    @Override
+    public Supplier<CarTopK<K>> supplier() {
+        return () -> new CarTopK<>(k, cheapest, classifier);
+    }
+
+    @Override
+    public BiConsumer<CarTopK<K>, Car> accumulator() {
+        return CarTopK::accept;
+    }
+
+    @Override
+    public BinaryOperator<CarTopK<K>> combiner() {
+        return CarTopK::merge;
+    }
+
+    @Override
+    public Function<CarTopK<K>, Map<K, List<Car>>> finisher() {
+        return CarTopK::toMap;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Set.of(Characteristics.UNORDERED);
+    }
+}
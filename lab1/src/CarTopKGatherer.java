@@ -0,0 +1,113 @@
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Gatherer;
+
+/**
+ * Gatherer that keeps the {@code k} cheapest or most expensive cars per group and emits them periodically,
+ * which makes top-k queries usable on the unbounded {@link CarGenerator#generateCars()} stream.
+ * After every {@code every} cars it emits the groups seen so far, each listed from the best price to the worst,
+ * and it emits them once more when the stream ends if cars arrived since the last emission.
+ * Memory stays at O(k) cars per group no matter how long the stream runs.
+ *
+ * @param <K> Type of the group keys.
+ */
+public class CarTopKGatherer<K> implements Gatherer<Car, CarTopKGatherer.State<K>, Map<K, List<Car>>> {
+    private final int k;
+    private final boolean cheapest;
+    private final Function<? super Car, ? extends K> classifier;
+    private final long every;
+
+    /**
+     * Constructs a top-k gatherer.
+     *
+     * @param k          Number of cars kept per group.
+     * @param cheapest   Whether to keep the cheapest cars rather than the most expensive.
+     * @param classifier Function giving the group of a car.
+     * @param every      Number of cars between two emissions.
+     */
+    public CarTopKGatherer(int k, boolean cheapest, Function<? super Car, ? extends K> classifier, long every) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Number of kept cars must be positive, got " + k);
+        }
+        if (every <= 0) {
+            throw new IllegalArgumentException("Emission period must be positive, got " + every);
+        }
+        this.k = k;
+        this.cheapest = cheapest;
+        this.classifier = classifier;
+        this.every = every;
+    }
+
+    /**
+     * Creates a gatherer of the {@code k} cheapest cars per group, emitted every {@code every} cars.
+     *
+     * @param k          Number of cars kept per group.
+     * @param classifier Function giving the group of a car, e.g. {@code Car::getCarClass}.
+     * @param every      Number of cars between two emissions.
+     * @param <K>        Type of the group keys.
+     * @return the gatherer.
+     */
+    public static <K> CarTopKGatherer<K> cheapest(int k, Function<? super Car, ? extends K> classifier, long every) {
+        return new CarTopKGatherer<>(k, true, classifier, every);
+    }
+
+    /**
+     * Creates a gatherer of the {@code k} most expensive cars per group, emitted every {@code every} cars.
+     *
+     * @param k          Number of cars kept per group.
+     * @param classifier Function giving the group of a car, e.g. {@code Car::getBrand}.
+     * @param every      Number of cars between two emissions.
+     * @param <K>        Type of the group keys.
+     * @return the gatherer.
+     */
+    public static <K> CarTopKGatherer<K> mostExpensive(int k, Function<? super Car, ? extends K> classifier,
+                                                       long every) {
+        return new CarTopKGatherer<>(k, false, classifier, every);
+    }
+
+    @Override
+    public Supplier<State<K>> initializer() {
+        return () -> new State<>(new CarTopK<>(k, cheapest, classifier));
+    }
+
+    @Override
+    public Integrator<State<K>, Car, Map<K, List<Car>>> integrator() {
+        return Integrator.ofGreedy((state, car, downstream) -> {
+            state.topK.accept(car);
+            if (++state.sinceEmission < every) {
+                return true;
+            }
+            state.sinceEmission = 0;
+            return downstream.push(state.topK.toMap());
+        });
+    }
+
+    @Override
+    public BiConsumer<State<K>, Downstream<? super Map<K, List<Car>>>> finisher() {
+        return (state, downstream) -> {
+            if (state.sinceEmission > 0 && !downstream.isRejecting()) {
+                downstream.push(state.topK.toMap());
+            }
+        };
+    }
+
+    /**
+     * Per-evaluation state of the gatherer: the kept cars and the number of cars since the last emission.
+     *
+     * @param <K> Type of the group keys.
+     */
+    public static class State<K> {
+        private final CarTopK<K> topK;
+        private long sinceEmission;
+
+        /**
+         * Constructs the state over an empty accumulator.
+         */
+        private State(CarTopK<K> topK) {
+            this.topK = topK;
+        }
+    }
+}
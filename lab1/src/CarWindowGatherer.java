@@ -0,0 +1,202 @@
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Gatherer;
+
+/**
+ * Gatherer that emits the {@link CarStatistics} of car price windows, including the number of IQR outliers,
+ * which makes it usable on the unbounded {@link CarGenerator#generateCars()} stream for continuous monitoring.
+ * Windows are either count based (the last {@code size} cars, reported every {@code step} cars) or keyed on a logical
+ * timestamp (cars with timestamps in {@code [end - width, end)}, reported every {@code slide} timestamp units).
+ * Cars enter and leave a {@link PriceWindow} one at a time, so the cost per car stays constant and does not depend on
+ * how often windows are reported. The gatherer is sequential, since windows depend on encounter order.
+ */
+public class CarWindowGatherer implements Gatherer<Car, CarWindowGatherer.State, CarStatistics> {
+
+    private final int size;
+    private final int step;
+    private final ToLongFunction<? super Car> timestamp;
+    private final long width;
+    private final long slide;
+
+    /**
+     * Constructs a window gatherer with the given bounds.
+     */
+    private CarWindowGatherer(int size, int step, ToLongFunction<? super Car> timestamp, long width, long slide) {
+        this.size = size;
+        this.step = step;
+        this.timestamp = timestamp;
+        this.width = width;
+        this.slide = slide;
+    }
+
+    /**
+     * Creates a gatherer of non-overlapping windows of {@code size} consecutive cars.
+     * A trailing window with fewer cars is reported when the stream ends.
+     *
+     * @param size Number of cars in each window.
+     * @return the tumbling window gatherer.
+     */
+    public static CarWindowGatherer tumbling(int size) {
+        return sliding(size, size);
+    }
+
+    /**
+     * Creates a gatherer of windows over the last {@code size} cars, reported after every {@code step} cars once the
+     * first window is full. If the stream ends before that, the incomplete window is reported once.
+     *
+     * @param size Number of cars in each window.
+     * @param step Number of cars between two reports, from 1 to {@code size}.
+     * @return the sliding window gatherer.
+     */
+    public static CarWindowGatherer sliding(int size, int step) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Window size must be positive, got " + size);
+        }
+        if (step <= 0 || step > size) {
+            throw new IllegalArgumentException("Window step must be between 1 and " + size + ", got " + step);
+        }
+        return new CarWindowGatherer(size, step, null, 0, 0);
+    }
+
+    /**
+     * Creates a gatherer of non-overlapping windows covering {@code width} timestamp units each,
+     * aligned to multiples of the width.
+     *
+     * @param timestamp Function giving the logical timestamp of a car, e.g. its arrival time or sequence number.
+     * @param width     Length of each window in timestamp units.
+     * @return the tumbling time window gatherer.
+     */
+    public static CarWindowGatherer timeTumbling(ToLongFunction<? super Car> timestamp, long width) {
+        return timeSliding(timestamp, width, width);
+    }
+
+    /**
+     * Creates a gatherer of windows covering the last {@code width} timestamp units, reported every {@code slide}
+     * units at multiples of the slide. A window is reported when the first car past its end arrives, or when the
+     * stream ends; empty windows are not reported.
+     * Timestamps are expected not to decrease; a late car is counted as if it arrived with the latest timestamp.
+     *
+     * @param timestamp Function giving the logical timestamp of a car, e.g. its arrival time or sequence number.
+     * @param width     Length of each window in timestamp units.
+     * @param slide     Distance between the ends of consecutive windows, from 1 to {@code width}.
+     * @return the sliding time window gatherer.
+     */
+    public static CarWindowGatherer timeSliding(ToLongFunction<? super Car> timestamp, long width, long slide) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("Window width must be positive, got " + width);
+        }
+        if (slide <= 0 || slide > width) {
+            throw new IllegalArgumentException("Window slide must be between 1 and " + width + ", got " + slide);
+        }
+        return new CarWindowGatherer(0, 0, timestamp, width, slide);
+    }
+
+    @Override
+    public Supplier<State> initializer() {
+        if (timestamp == null) {
+            return () -> new State(new PriceWindow(size, step < size));
+        }
+        return () -> new State(new PriceWindow(0, slide < width));
+    }
+
+    @Override
+    public Integrator<State, Car, CarStatistics> integrator() {
+        if (timestamp == null) {
+            return Integrator.ofGreedy((state, car, downstream) -> {
+                PriceWindow window = state.window;
+                window.add(state.seen++, car.getPrice());
+                if (window.size() > size) {
+                    window.evictOldest();
+                }
+                if (state.seen < size || (state.seen - size) % step != 0) {
+                    return true;
+                }
+                state.emitted = true;
+                boolean accepting = downstream.push(window.toStatistics());
+                if (step == size) {
+                    window.clear();
+                }
+                return accepting;
+            });
+        }
+        return Integrator.ofGreedy((state, car, downstream) -> {
+            long time = timestamp.applyAsLong(car);
+            if (!state.started) {
+                state.started = true;
+                state.windowEnd = firstWindowEnd(time);
+            } else if (time < state.latest) {
+                time = state.latest;
+            }
+            state.latest = time;
+            boolean accepting = true;
+            while (accepting && time >= state.windowEnd) {
+                accepting = emitTimeWindow(state, downstream);
+                if (state.window.size() == 0 && time >= state.windowEnd) {
+                    state.windowEnd = firstWindowEnd(time);
+                }
+            }
+            state.window.add(time, car.getPrice());
+            return accepting;
+        });
+    }
+
+    @Override
+    public BiConsumer<State, Downstream<? super CarStatistics>> finisher() {
+        if (timestamp == null) {
+            return (state, downstream) -> {
+                boolean trailing = step == size || !state.emitted;
+                if (trailing && state.window.size() > 0 && !downstream.isRejecting()) {
+                    downstream.push(state.window.toStatistics());
+                }
+            };
+        }
+        return (state, downstream) -> {
+            boolean accepting = true;
+            while (accepting && state.window.size() > 0) {
+                accepting = emitTimeWindow(state, downstream);
+            }
+        };
+    }
+
+    /**
+     * Evicts cars that fall before the current time window, reports the window if it is not empty,
+     * and moves on to the next window.
+     */
+    private boolean emitTimeWindow(State state, Downstream<? super CarStatistics> downstream) {
+        PriceWindow window = state.window;
+        long windowStart = state.windowEnd - width;
+        while (window.size() > 0 && window.oldestTimestamp() < windowStart) {
+            window.evictOldest();
+        }
+        boolean accepting = window.size() == 0 || downstream.push(window.toStatistics());
+        state.windowEnd += slide;
+        return accepting;
+    }
+
+    /**
+     * Computes the end of the first window that contains the given timestamp.
+     */
+    private long firstWindowEnd(long time) {
+        return Math.floorDiv(time, slide) * slide + slide;
+    }
+
+    /**
+     * Per-evaluation state of the gatherer: the current window and the position in the stream.
+     */
+    public static class State {
+        private final PriceWindow window;
+        private long seen;
+        private boolean emitted;
+        private boolean started;
+        private long latest;
+        private long windowEnd;
+
+        /**
+         * Constructs the state over an empty window.
+         */
+        private State(PriceWindow window) {
+            this.window = window;
+        }
+    }
+}
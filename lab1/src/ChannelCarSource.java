@@ -0,0 +1,102 @@
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Source that reads CSV records from a byte channel: a file, a socket or any other stream.
+ * Bytes are read into a reusable buffer, every read that completes at least one line is parsed into a batch with
+ * {@link CarCsvReader}, and the incomplete last line is carried over to the next read. Fast sources therefore produce
+ * batches of a full buffer, while slow sources produce small batches as soon as their lines arrive.
+ */
+class ChannelCarSource implements CarSource {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final String name;
+    private final Callable<? extends ReadableByteChannel> opener;
+
+    /**
+     * Constructs a source over a channel opened on demand.
+     *
+     * @param name   Name of the source.
+     * @param opener Opens the channel to read.
+     */
+    ChannelCarSource(String name, Callable<? extends ReadableByteChannel> opener) {
+        this.name = name;
+        this.opener = opener;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void read(BatchConsumer consumer) throws IOException, InterruptedException {
+        try (ReadableByteChannel channel = open()) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int filled = 0;
+            long consumed = 0;
+            while (true) {
+                if (filled == buffer.length) {
+                    // A single line does not fit into the buffer
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled));
+                if (read < 0) {
+                    break;
+                }
+                filled += read;
+                int end = lastLineEnd(buffer, filled);
+                if (end > 0) {
+                    consumer.accept(parse(buffer, end, consumed), end);
+                    System.arraycopy(buffer, end, buffer, 0, filled - end);
+                    filled -= end;
+                    consumed += end;
+                }
+            }
+            if (filled > 0) {
+                consumer.accept(parse(buffer, filled, consumed), filled);
+            }
+        }
+    }
+
+    /**
+     * Opens the channel, wrapping failures of the opener in an {@link IOException}.
+     */
+    private ReadableByteChannel open() throws IOException {
+        try {
+            return opener.call();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Cannot open " + name, e);
+        }
+    }
+
+    /**
+     * Parses the lines at the start of the buffer, naming the source and the stream offset in errors.
+     */
+    private CarTable parse(byte[] buffer, int end, long consumed) throws IOException {
+        try {
+            return CarCsvReader.parseChunk(MemorySegment.ofArray(buffer), 0, end, consumed == 0);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed record in " + name + " after byte " + consumed + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Finds the offset after the last line feed of the filled part of the buffer.
+     */
+    private static int lastLineEnd(byte[] buffer, int filled) {
+        for (int i = filled - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+}
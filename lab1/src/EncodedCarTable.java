@@ -0,0 +1,553 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Immutable compressed copy of a {@link CarTable}, stored in blocks of {@link #getBlockSize()} rows.
+ * Every column of a block is an {@link EncodedColumn} in the smallest of frame-of-reference, delta or run-length
+ * bit-packing: whole-number prices become bit-packed offsets from the block minimum, epoch days take 13 to 14 bits
+ * for the 2005 to 2025 range (or far fewer as deltas of date-ordered exports), and the brand, model and class
+ * dictionary codes take a few bits each, or a run per value when rows are clustered. Blocks with fractional prices
+ * keep them as plain {@code double}s. Generated cars shrink from 18 to about 6 bytes each; sorted or clustered
+ * exports shrink further.
+ * Statistics and outlier counts are computed on the encoded blocks: minimum and maximum come from the block headers,
+ * sums from the packed offsets, and blocks entirely inside or outside of the outlier bounds are never unpacked.
+ * Tables are written to and read from files in the same encoding through {@link FileChannel}s.
+ */
+public class EncodedCarTable {
+    /**
+     * Default number of rows per block.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    static final int MAGIC = 0x43454E43;
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RAW_BYTES_PER_CAR = Double.BYTES + Integer.BYTES + 3 * Short.BYTES;
+    private static final double LARGEST_EXACT_PRICE = 0x1.0p53;
+
+    private final CarDictionary brands;
+    private final CarDictionary models;
+    private final CarDictionary classes;
+    private final int blockSize;
+    private final int size;
+    private final Block[] blocks;
+
+    /**
+     * Encodes a table with the default block size.
+     *
+     * @param cars The table to encode; its dictionaries are shared.
+     */
+    public EncodedCarTable(CarTable cars) {
+        this(cars, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Encodes a table.
+     *
+     * @param cars      The table to encode; its dictionaries are shared.
+     * @param blockSize Number of rows per block.
+     */
+    public EncodedCarTable(CarTable cars, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive, got " + blockSize);
+        }
+        this.brands = cars.getBrands();
+        this.models = cars.getModels();
+        this.classes = cars.getClasses();
+        this.blockSize = blockSize;
+        this.size = cars.size();
+        this.blocks = new Block[(int) (((long) size + blockSize - 1) / blockSize)];
+
+        double[] prices = cars.getPriceColumn();
+        int[] epochDays = cars.getEpochDayColumn();
+        short[] brandCodes = cars.getBrandCodeColumn();
+        short[] modelCodes = cars.getModelCodeColumn();
+        short[] classCodes = cars.getClassCodeColumn();
+        long[] values = new long[Math.min(blockSize, Math.max(size, 1))];
+        for (int block = 0; block < blocks.length; block++) {
+            int from = block * blockSize;
+            int rows = Math.min(blockSize, size - from);
+
+            boolean wholePrices = true;
+            for (int i = 0; i < rows && wholePrices; i++) {
+                wholePrices = isWholePrice(prices[from + i]);
+            }
+            EncodedColumn priceColumn = null;
+            double[] rawPrices = null;
+            if (wholePrices) {
+                for (int i = 0; i < rows; i++) {
+                    values[i] = (long) prices[from + i];
+                }
+                priceColumn = EncodedColumn.encode(values, rows);
+            } else {
+                rawPrices = Arrays.copyOfRange(prices, from, from + rows);
+            }
+            for (int i = 0; i < rows; i++) {
+                values[i] = epochDays[from + i];
+            }
+            EncodedColumn epochDayColumn = EncodedColumn.encode(values, rows);
+            EncodedColumn brandColumn = encodeCodes(brandCodes, from, rows, values);
+            EncodedColumn modelColumn = encodeCodes(modelCodes, from, rows, values);
+            EncodedColumn classColumn = encodeCodes(classCodes, from, rows, values);
+            blocks[block] = new Block(rows, priceColumn, rawPrices, epochDayColumn, brandColumn, modelColumn,
+                    classColumn);
+        }
+    }
+
+    /**
+     * Constructs a table from decoded parts.
+     */
+    private EncodedCarTable(CarDictionary brands, CarDictionary models, CarDictionary classes, int blockSize,
+                            int size, Block[] blocks) {
+        this.brands = brands;
+        this.models = models;
+        this.classes = classes;
+        this.blockSize = blockSize;
+        this.size = size;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Gets the number of cars in the table.
+     *
+     * @return the number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of rows per block; only the last block may be shorter.
+     *
+     * @return the block size.
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Gets the number of blocks.
+     *
+     * @return the number of blocks.
+     */
+    public int getBlockCount() {
+        return blocks.length;
+    }
+
+    /**
+     * Gets the price of a car, unpacking only that row.
+     *
+     * @param row Index of the row.
+     * @return the price.
+     */
+    public double getPrice(int row) {
+        Block block = block(row);
+        int index = row % blockSize;
+        return block.prices != null ? block.prices.get(index) : block.rawPrices[index];
+    }
+
+    /**
+     * Gets the manufacture date of a car as a number of days since 1970-01-01.
+     *
+     * @param row Index of the row.
+     * @return the epoch day.
+     */
+    public int getEpochDay(int row) {
+        return (int) block(row).epochDays.get(row % blockSize);
+    }
+
+    /**
+     * Materializes the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return a new {@link Car} with the row's values.
+     */
+    public Car getCar(int row) {
+        Block block = block(row);
+        int index = row % blockSize;
+        return new Car(
+                brands.decode((int) block.brands.get(index)),
+                models.decode((int) block.models.get(index)),
+                LocalDate.ofEpochDay(block.epochDays.get(index)),
+                classes.decode((int) block.classes.get(index)),
+                getPrice(row)
+        );
+    }
+
+    /**
+     * Decodes the prices of a block.
+     *
+     * @param block  Index of the block.
+     * @param target Array receiving the prices, at least {@link #getBlockSize()} long.
+     * @return the number of rows of the block.
+     */
+    public int decodePrices(int block, double[] target) {
+        Block encoded = blocks[block];
+        if (encoded.prices != null) {
+            encoded.prices.decode(target);
+        } else {
+            System.arraycopy(encoded.rawPrices, 0, target, 0, encoded.rows);
+        }
+        return encoded.rows;
+    }
+
+    /**
+     * Decodes all prices into a new primitive array.
+     *
+     * @return the prices in row order.
+     */
+    public double[] decodePrices() {
+        double[] prices = new double[size];
+        double[] buffer = new double[Math.min(blockSize, Math.max(size, 1))];
+        for (int block = 0; block < blocks.length; block++) {
+            int rows = decodePrices(block, buffer);
+            System.arraycopy(buffer, 0, prices, block * blockSize, rows);
+        }
+        return prices;
+    }
+
+    /**
+     * Decodes the whole table into a heap table sharing this table's dictionaries.
+     *
+     * @return the decoded table.
+     */
+    public CarTable decode() {
+        CarTable cars = new CarTable(brands, models, classes, Math.max(size, 1));
+        int capacity = Math.min(blockSize, Math.max(size, 1));
+        double[] prices = new double[capacity];
+        long[] epochDays = new long[capacity];
+        long[] brandCodes = new long[capacity];
+        long[] modelCodes = new long[capacity];
+        long[] classCodes = new long[capacity];
+        for (int block = 0; block < blocks.length; block++) {
+            Block encoded = blocks[block];
+            decodePrices(block, prices);
+            encoded.epochDays.decode(epochDays);
+            encoded.brands.decode(brandCodes);
+            encoded.models.decode(modelCodes);
+            encoded.classes.decode(classCodes);
+            for (int i = 0; i < encoded.rows; i++) {
+                cars.addEncoded((int) brandCodes[i], (int) modelCodes[i], (int) classCodes[i], (int) epochDays[i],
+                        prices[i]);
+            }
+        }
+        return cars;
+    }
+
+    /**
+     * Computes the price statistics from the encoded blocks. Whole-number blocks are aggregated from their headers
+     * and packed offsets without decoding; other blocks go through the {@link PriceKernels}.
+     *
+     * @return the statistics of all cars.
+     */
+    public CarStatistics statistics() {
+        PriceMoments moments = new PriceMoments();
+        double[] buffer = null;
+        for (int block = 0; block < blocks.length; block++) {
+            Block encoded = blocks[block];
+            EncodedColumn prices = encoded.prices;
+            if (prices != null && prices.hasExactSquares()) {
+                long n = encoded.rows;
+                long sum = prices.sumOffsets();
+                double m2 = prices.sumSquaredOffsets() - (double) sum * sum / n;
+                moments.merge(PriceMoments.of(n, prices.min(), prices.max(), prices.min() + (double) sum / n,
+                        Math.max(m2, 0)));
+            } else {
+                if (buffer == null) {
+                    buffer = new double[blockSize];
+                }
+                int rows = decodePrices(block, buffer);
+                moments.merge(PriceKernels.moments(buffer, 0, rows));
+            }
+        }
+        return moments.toStatistics();
+    }
+
+    /**
+     * Counts the cars priced strictly below the lower bound or strictly above the upper bound.
+     * Blocks whose price range lies entirely inside or outside of the bounds are decided from their headers.
+     *
+     * @param lowerBound The lower bound.
+     * @param upperBound The upper bound.
+     * @return the number of prices outside of the bounds.
+     */
+    public long countOutside(double lowerBound, double upperBound) {
+        long low = Double.isNaN(lowerBound) ? Long.MIN_VALUE : (long) Math.ceil(lowerBound);
+        long high = Double.isNaN(upperBound) ? Long.MAX_VALUE : (long) Math.floor(upperBound);
+        long count = 0;
+        for (Block block : blocks) {
+            count += block.prices != null
+                    ? block.prices.countOutside(low, high)
+                    : PriceKernels.countOutside(block.rawPrices, 0, block.rows, lowerBound, upperBound);
+        }
+        return count;
+    }
+
+    /**
+     * Performs exact analysis of data points and outliers: quartiles are selected on the decoded prices and
+     * outliers are counted on the encoded blocks.
+     *
+     * @return the IQR analysis of the car prices.
+     */
+    public IqrResult analyze() {
+        double[] prices = decodePrices();
+        double q1 = PriceQuantiles.percentile(prices, 0, size, 25);
+        double q3 = PriceQuantiles.percentile(prices, 0, size, 75);
+        long outliers = countOutside(IqrResult.lowerBound(q1, q3), IqrResult.upperBound(q1, q3));
+        return new IqrResult(q1, q3, size - outliers, outliers);
+    }
+
+    /**
+     * Gets the size of the encoded columns, as stored in memory and in files.
+     *
+     * @return the encoded size in bytes.
+     */
+    public long getEncodedBytes() {
+        long bytes = 0;
+        for (Block block : blocks) {
+            bytes += block.getSizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the size the same cars take in the primitive columns of a {@link CarTable}.
+     *
+     * @return the unencoded size in bytes.
+     */
+    public long getRawBytes() {
+        return (long) size * RAW_BYTES_PER_CAR;
+    }
+
+    /**
+     * Writes the table to a file, replacing any existing file.
+     * <pre>
+     * header        magic "CENC" (int), version (int), row count (int), block size (int)
+     * dictionaries  brands, models, classes; each is a value count (int) followed by (byte length (int), UTF-8 bytes)
+     * blocks        byte length (int) followed by the row count (int), a price flag (byte) and the encoded columns
+     * </pre>
+     * All values are little-endian.
+     *
+     * @param path The path of the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, buffer(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(size).putInt(blockSize));
+            for (CarDictionary dictionary : new CarDictionary[]{brands, models, classes}) {
+                writeFully(channel, buffer(Integer.BYTES).putInt(dictionary.size()));
+                for (int code = 0; code < dictionary.size(); code++) {
+                    byte[] value = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+                    writeFully(channel, buffer(Integer.BYTES + value.length).putInt(value.length).put(value));
+                }
+            }
+            for (Block block : blocks) {
+                ByteBuffer buffer = buffer(Integer.BYTES + block.getSizeInBytes()).putInt(block.getSizeInBytes());
+                block.write(buffer);
+                writeFully(channel, buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a table written by {@link #write(Path)}.
+     *
+     * @param path The path of the file.
+     * @return the encoded table.
+     * @throws IOException if the file cannot be read or is not an encoded car file.
+     */
+    public static EncodedCarTable read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not an encoded car file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported encoded car file version: " + version);
+            }
+            int size = header.getInt();
+            int blockSize = header.getInt();
+            if (size < 0 || blockSize <= 0) {
+                throw new IOException("Encoded car file is corrupt");
+            }
+            CarDictionary[] dictionaries = new CarDictionary[3];
+            for (int i = 0; i < dictionaries.length; i++) {
+                dictionaries[i] = new CarDictionary();
+                int values = readFully(channel, Integer.BYTES).getInt();
+                for (int code = 0; code < values; code++) {
+                    int length = readFully(channel, Integer.BYTES).getInt();
+                    dictionaries[i].encode(StandardCharsets.UTF_8.decode(readFully(channel, length)).toString());
+                }
+            }
+            Block[] blocks = new Block[(int) (((long) size + blockSize - 1) / blockSize)];
+            for (int block = 0; block < blocks.length; block++) {
+                ByteBuffer buffer = readFully(channel, readFully(channel, Integer.BYTES).getInt());
+                try {
+                    blocks[block] = Block.read(buffer);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    throw new IOException("Encoded car file is corrupt in block " + block, e);
+                }
+                if (blocks[block].rows != Math.min(blockSize, size - block * blockSize)) {
+                    throw new IOException("Encoded car file is corrupt in block " + block);
+                }
+            }
+            return new EncodedCarTable(dictionaries[0], dictionaries[1], dictionaries[2], blockSize, size, blocks);
+        }
+    }
+
+    /**
+     * Gets the block holding a row.
+     */
+    private Block block(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside of table of size " + size);
+        }
+        return blocks[row / blockSize];
+    }
+
+    /**
+     * Checks whether a price survives the round trip through a {@code long}, including its sign.
+     */
+    private static boolean isWholePrice(double price) {
+        return price == Math.rint(price) && Math.abs(price) <= LARGEST_EXACT_PRICE
+                && Double.doubleToRawLongBits(price) != Double.doubleToRawLongBits(-0.0);
+    }
+
+    /**
+     * Encodes a range of unsigned 16-bit dictionary codes.
+     */
+    private static EncodedColumn encodeCodes(short[] codes, int from, int rows, long[] values) {
+        for (int i = 0; i < rows; i++) {
+            values[i] = Short.toUnsignedInt(codes[from + i]);
+        }
+        return EncodedColumn.encode(values, rows);
+    }
+
+    /**
+     * Allocates a little-endian buffer.
+     */
+    private static ByteBuffer buffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes a filled buffer completely.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads exactly {@code length} bytes into a new little-endian buffer.
+     */
+    private static ByteBuffer readFully(FileChannel channel, int length) throws IOException {
+        if (length < 0 || length > channel.size() - channel.position()) {
+            throw new IOException("Encoded car file is truncated");
+        }
+        ByteBuffer buffer = buffer(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Encoded car file is truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Encoded columns of one block of rows.
+     */
+    private static final class Block {
+        private final int rows;
+        private final EncodedColumn prices;
+        private final double[] rawPrices;
+        private final EncodedColumn epochDays;
+        private final EncodedColumn brands;
+        private final EncodedColumn models;
+        private final EncodedColumn classes;
+
+        /**
+         * Constructs a block; exactly one of {@code prices} and {@code rawPrices} is set.
+         */
+        private Block(int rows, EncodedColumn prices, double[] rawPrices, EncodedColumn epochDays,
+                      EncodedColumn brands, EncodedColumn models, EncodedColumn classes) {
+            this.rows = rows;
+            this.prices = prices;
+            this.rawPrices = rawPrices;
+            this.epochDays = epochDays;
+            this.brands = brands;
+            this.models = models;
+            this.classes = classes;
+        }
+
+        /**
+         * Gets the size of the block as written by {@link #write(ByteBuffer)}.
+         */
+        private int getSizeInBytes() {
+            return Integer.BYTES + 1
+                    + (prices != null ? prices.getSizeInBytes() : rows * Double.BYTES)
+                    + epochDays.getSizeInBytes() + brands.getSizeInBytes() + models.getSizeInBytes()
+                    + classes.getSizeInBytes();
+        }
+
+        /**
+         * Writes the block.
+         */
+        private void write(ByteBuffer buffer) {
+            buffer.putInt(rows).put((byte) (prices != null ? 1 : 0));
+            if (prices != null) {
+                prices.write(buffer);
+            } else {
+                for (double price : rawPrices) {
+                    buffer.putDouble(price);
+                }
+            }
+            epochDays.write(buffer);
+            brands.write(buffer);
+            models.write(buffer);
+            classes.write(buffer);
+        }
+
+        /**
+         * Reads a block written by {@link #write(ByteBuffer)}.
+         */
+        private static Block read(ByteBuffer buffer) {
+            int rows = buffer.getInt();
+            boolean encodedPrices = buffer.get() != 0;
+            EncodedColumn prices = null;
+            double[] rawPrices = null;
+            if (encodedPrices) {
+                prices = EncodedColumn.read(buffer);
+            } else {
+                if (rows <= 0 || rows > buffer.remaining() / Double.BYTES) {
+                    throw new IllegalArgumentException("Corrupt price column");
+                }
+                rawPrices = new double[rows];
+                for (int i = 0; i < rows; i++) {
+                    rawPrices[i] = buffer.getDouble();
+                }
+            }
+            Block block = new Block(rows, prices, rawPrices, EncodedColumn.read(buffer), EncodedColumn.read(buffer),
+                    EncodedColumn.read(buffer), EncodedColumn.read(buffer));
+            for (EncodedColumn column : new EncodedColumn[]{block.prices, block.epochDays, block.brands,
+                    block.models, block.classes}) {
+                if (column != null && column.length() != rows) {
+                    throw new IllegalArgumentException("Column length does not match the block");
+                }
+            }
+            return block;
+        }
+    }
+}
@@ -0,0 +1,472 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Immutable compressed block of an integer column, used by {@link EncodedCarTable}.
+ * Each block is stored in whichever of three encodings is smallest for its values:
+ * <ul>
+ *     <li>frame of reference: the minimum plus every offset from it bit-packed with the width of the largest offset;</li>
+ *     <li>delta: the first value plus the differences between neighbours, shifted by the smallest difference and
+ *     bit-packed, which wins on sorted or slowly changing columns such as dates of date-ordered exports;</li>
+ *     <li>run-length: one value and end index per run of equal values, which wins on clustered dictionary codes.</li>
+ * </ul>
+ * Packed words carry one padding word, so an offset is read with two shifts and a mask and no branch, and decoding a
+ * block is a straight loop without data-dependent branches. The minimum and maximum are kept with every block,
+ * which lets aggregations skip blocks and work on offsets instead of decoded values.
+ * Values must lie within {@code ±2^53}, so differences and sums of offsets cannot overflow.
+ */
+final class EncodedColumn {
+    private static final byte FRAME_OF_REFERENCE = 0;
+    private static final byte DELTA = 1;
+    private static final byte RUN_LENGTH = 2;
+    private static final int HEADER_SIZE = 22;
+
+    private final byte encoding;
+    private final int length;
+    private final long min;
+    private final long max;
+    private final long base;
+    private final long step;
+    private final int width;
+    private final long[] words;
+    private final long[] runValues;
+    private final int[] runEnds;
+
+    /**
+     * Constructs a block from its encoded parts.
+     */
+    private EncodedColumn(byte encoding, int length, long min, long max, long base, long step, int width,
+                          long[] words, long[] runValues, int[] runEnds) {
+        this.encoding = encoding;
+        this.length = length;
+        this.min = min;
+        this.max = max;
+        this.base = base;
+        this.step = step;
+        this.width = width;
+        this.words = words;
+        this.runValues = runValues;
+        this.runEnds = runEnds;
+    }
+
+    /**
+     * Encodes values with the smallest of the three encodings.
+     *
+     * @param values The values.
+     * @param length The number of values to encode, at least one.
+     * @return the encoded block.
+     */
+    static EncodedColumn encode(long[] values, int length) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long minDelta = Long.MAX_VALUE;
+        long maxDelta = Long.MIN_VALUE;
+        int runs = 1;
+        for (int i = 0; i < length; i++) {
+            long value = values[i];
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            if (i > 0) {
+                long delta = value - values[i - 1];
+                minDelta = Math.min(minDelta, delta);
+                maxDelta = Math.max(maxDelta, delta);
+                if (delta != 0) {
+                    runs++;
+                }
+            }
+        }
+        int frameWidth = width(max - min);
+        int deltaWidth = length == 1 ? 0 : width(maxDelta - minDelta);
+        long frameSize = packedWords(length, frameWidth);
+        long deltaSize = packedWords(length - 1, deltaWidth);
+        long runSize = (long) runs * (Long.BYTES + Integer.BYTES) / Long.BYTES + 1;
+
+        if (runSize < frameSize && runSize < deltaSize) {
+            long[] runValues = new long[runs];
+            int[] runEnds = new int[runs];
+            int run = 0;
+            for (int i = 1; i <= length; i++) {
+                if (i == length || values[i] != values[i - 1]) {
+                    runValues[run] = values[i - 1];
+                    runEnds[run++] = i;
+                }
+            }
+            return new EncodedColumn(RUN_LENGTH, length, min, max, 0, 0, 0, null, runValues, runEnds);
+        }
+        if (deltaSize < frameSize) {
+            long[] words = new long[(int) deltaSize];
+            for (int i = 1; i < length; i++) {
+                pack(words, deltaWidth, i - 1, values[i] - values[i - 1] - minDelta);
+            }
+            return new EncodedColumn(DELTA, length, min, max, values[0], minDelta, deltaWidth, words, null, null);
+        }
+        long[] words = new long[(int) frameSize];
+        for (int i = 0; i < length; i++) {
+            pack(words, frameWidth, i, values[i] - min);
+        }
+        return new EncodedColumn(FRAME_OF_REFERENCE, length, min, max, min, 0, frameWidth, words, null, null);
+    }
+
+    /**
+     * Decodes all values of the block.
+     *
+     * @param target Array receiving the values, at least {@link #length()} long.
+     */
+    void decode(long[] target) {
+        switch (encoding) {
+            case FRAME_OF_REFERENCE -> {
+                long mask = mask(width);
+                for (int i = 0; i < length; i++) {
+                    target[i] = base + unpack(words, width, mask, i);
+                }
+            }
+            case DELTA -> {
+                long mask = mask(width);
+                long value = base;
+                target[0] = value;
+                for (int i = 1; i < length; i++) {
+                    value += step + unpack(words, width, mask, i - 1);
+                    target[i] = value;
+                }
+            }
+            default -> {
+                int from = 0;
+                for (int run = 0; run < runEnds.length; run++) {
+                    long value = runValues[run];
+                    int to = runEnds[run];
+                    for (int i = from; i < to; i++) {
+                        target[i] = value;
+                    }
+                    from = to;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes all values of the block as {@code double}s, e.g. whole-number prices.
+     *
+     * @param target Array receiving the values, at least {@link #length()} long.
+     */
+    void decode(double[] target) {
+        if (encoding == FRAME_OF_REFERENCE) {
+            long mask = mask(width);
+            for (int i = 0; i < length; i++) {
+                target[i] = base + unpack(words, width, mask, i);
+            }
+            return;
+        }
+        long[] values = new long[length];
+        decode(values);
+        for (int i = 0; i < length; i++) {
+            target[i] = values[i];
+        }
+    }
+
+    /**
+     * Reads a single value without decoding the block; delta blocks are summed up to the index.
+     *
+     * @param index Index of the value within the block.
+     * @return the value.
+     */
+    long get(int index) {
+        switch (encoding) {
+            case FRAME_OF_REFERENCE -> {
+                return base + unpack(words, width, mask(width), index);
+            }
+            case DELTA -> {
+                long mask = mask(width);
+                long value = base + step * index;
+                for (int i = 0; i < index; i++) {
+                    value += unpack(words, width, mask, i);
+                }
+                return value;
+            }
+            default -> {
+                int low = 0;
+                int high = runEnds.length - 1;
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    if (runEnds[middle] <= index) {
+                        low = middle + 1;
+                    } else {
+                        high = middle;
+                    }
+                }
+                return runValues[low];
+            }
+        }
+    }
+
+    /**
+     * Sums the offsets of the values from the minimum straight from the packed words or runs.
+     *
+     * @return the sum of {@code value - min()} over the block.
+     */
+    long sumOffsets() {
+        long sum = 0;
+        switch (encoding) {
+            case FRAME_OF_REFERENCE -> {
+                long mask = mask(width);
+                for (int i = 0; i < length; i++) {
+                    sum += unpack(words, width, mask, i);
+                }
+            }
+            case RUN_LENGTH -> {
+                int from = 0;
+                for (int run = 0; run < runEnds.length; run++) {
+                    sum += (runValues[run] - min) * (runEnds[run] - from);
+                    from = runEnds[run];
+                }
+            }
+            default -> {
+                long[] values = new long[length];
+                decode(values);
+                for (long value : values) {
+                    sum += value - min;
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the squared offsets of the values from the minimum; only exact while {@link #hasExactSquares()}.
+     *
+     * @return the sum of {@code (value - min())^2} over the block.
+     */
+    long sumSquaredOffsets() {
+        long sum = 0;
+        switch (encoding) {
+            case FRAME_OF_REFERENCE -> {
+                long mask = mask(width);
+                for (int i = 0; i < length; i++) {
+                    long offset = unpack(words, width, mask, i);
+                    sum += offset * offset;
+                }
+            }
+            case RUN_LENGTH -> {
+                int from = 0;
+                for (int run = 0; run < runEnds.length; run++) {
+                    long offset = runValues[run] - min;
+                    sum += offset * offset * (runEnds[run] - from);
+                    from = runEnds[run];
+                }
+            }
+            default -> {
+                long[] values = new long[length];
+                decode(values);
+                for (long value : values) {
+                    sum += (value - min) * (value - min);
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Checks whether the sum of squared offsets fits into a {@code long}.
+     *
+     * @return whether {@link #sumSquaredOffsets()} is exact.
+     */
+    boolean hasExactSquares() {
+        return 2 * width(max - min) + width(length) < Long.SIZE - 1;
+    }
+
+    /**
+     * Counts the values strictly below {@code low} or strictly above {@code high}, deciding whole blocks from the
+     * minimum and maximum and otherwise comparing packed offsets.
+     *
+     * @param low  The lowest value not counted.
+     * @param high The highest value not counted.
+     * @return the number of values outside of the range.
+     */
+    long countOutside(long low, long high) {
+        if (min >= low && max <= high) {
+            return 0;
+        }
+        if (max < low || min > high || high < low) {
+            return length;
+        }
+        long count = 0;
+        switch (encoding) {
+            case FRAME_OF_REFERENCE -> {
+                long mask = mask(width);
+                long lowOffset = Math.max(low, min) - base;
+                long highOffset = Math.min(high, max) - base;
+                for (int i = 0; i < length; i++) {
+                    long offset = unpack(words, width, mask, i);
+                    count += (offset < lowOffset || offset > highOffset) ? 1 : 0;
+                }
+            }
+            case RUN_LENGTH -> {
+                int from = 0;
+                for (int run = 0; run < runEnds.length; run++) {
+                    if (runValues[run] < low || runValues[run] > high) {
+                        count += runEnds[run] - from;
+                    }
+                    from = runEnds[run];
+                }
+            }
+            default -> {
+                long[] values = new long[length];
+                decode(values);
+                for (long value : values) {
+                    count += (value < low || value > high) ? 1 : 0;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of values in the block.
+     *
+     * @return the number of values.
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Gets the smallest value of the block.
+     *
+     * @return the minimum.
+     */
+    long min() {
+        return min;
+    }
+
+    /**
+     * Gets the largest value of the block.
+     *
+     * @return the maximum.
+     */
+    long max() {
+        return max;
+    }
+
+    /**
+     * Gets the size of the block as written by {@link #write(ByteBuffer)}.
+     *
+     * @return the encoded size in bytes.
+     */
+    int getSizeInBytes() {
+        return HEADER_SIZE + (encoding == RUN_LENGTH
+                ? Integer.BYTES + runEnds.length * (Long.BYTES + Integer.BYTES)
+                : 2 * Long.BYTES + Integer.BYTES + words.length * Long.BYTES);
+    }
+
+    /**
+     * Writes the block.
+     *
+     * @param buffer The buffer to write to.
+     */
+    void write(ByteBuffer buffer) {
+        buffer.put(encoding).putInt(length).putLong(min).putLong(max).put((byte) width);
+        if (encoding == RUN_LENGTH) {
+            buffer.putInt(runEnds.length);
+            for (int run = 0; run < runEnds.length; run++) {
+                buffer.putLong(runValues[run]).putInt(runEnds[run]);
+            }
+        } else {
+            buffer.putLong(base).putLong(step).putInt(words.length);
+            for (long word : words) {
+                buffer.putLong(word);
+            }
+        }
+    }
+
+    /**
+     * Reads a block written by {@link #write(ByteBuffer)}.
+     *
+     * @param buffer The buffer to read from.
+     * @return the block.
+     * @throws IllegalArgumentException if the block is corrupt.
+     */
+    static EncodedColumn read(ByteBuffer buffer) {
+        byte encoding = buffer.get();
+        int length = buffer.getInt();
+        long min = buffer.getLong();
+        long max = buffer.getLong();
+        int width = buffer.get();
+        if (length <= 0 || width < 0 || width > Long.SIZE) {
+            throw new IllegalArgumentException("Corrupt column block");
+        }
+        switch (encoding) {
+            case FRAME_OF_REFERENCE, DELTA -> {
+                long base = buffer.getLong();
+                long step = buffer.getLong();
+                int count = buffer.getInt();
+                if (count != packedWords(encoding == DELTA ? length - 1 : length, width)
+                        || count > buffer.remaining() / Long.BYTES) {
+                    throw new IllegalArgumentException("Corrupt column block");
+                }
+                long[] words = new long[count];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = buffer.getLong();
+                }
+                return new EncodedColumn(encoding, length, min, max, base, step, width, words, null, null);
+            }
+            case RUN_LENGTH -> {
+                int runs = buffer.getInt();
+                if (runs <= 0 || runs > length || runs > buffer.remaining() / (Long.BYTES + Integer.BYTES)) {
+                    throw new IllegalArgumentException("Corrupt column block");
+                }
+                long[] runValues = new long[runs];
+                int[] runEnds = new int[runs];
+                for (int run = 0; run < runs; run++) {
+                    runValues[run] = buffer.getLong();
+                    runEnds[run] = buffer.getInt();
+                }
+                if (runEnds[runs - 1] != length) {
+                    throw new IllegalArgumentException("Corrupt column block");
+                }
+                return new EncodedColumn(RUN_LENGTH, length, min, max, 0, 0, 0, null, runValues, runEnds);
+            }
+            default -> throw new IllegalArgumentException("Unknown column encoding " + encoding);
+        }
+    }
+
+    /**
+     * Gets the number of bits needed for an unsigned value.
+     */
+    private static int width(long value) {
+        return Long.SIZE - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * Gets the number of words holding {@code count} packed values plus the padding word; zero-width values still
+     * read the first two words.
+     */
+    private static long packedWords(int count, int width) {
+        return Math.max(((long) count * width + Long.SIZE - 1) / Long.SIZE + 1, 2);
+    }
+
+    /**
+     * Gets the mask of the low {@code width} bits.
+     */
+    private static long mask(int width) {
+        return width == Long.SIZE ? -1L : (1L << width) - 1;
+    }
+
+    /**
+     * Stores a value at an index of the packed words; the part crossing a word boundary goes to the next word.
+     */
+    private static void pack(long[] words, int width, int index, long value) {
+        long bit = (long) index * width;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        words[word] |= value << shift;
+        words[word + 1] |= (value >>> 1) >>> (63 - shift);
+    }
+
+    /**
+     * Reads the value at an index of the packed words without branching on word boundaries.
+     */
+    private static long unpack(long[] words, int width, long mask, int index) {
+        long bit = (long) index * width;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        return ((words[word] >>> shift) | ((words[word + 1] << 1) << (63 - shift))) & mask;
+    }
+}
@@ -0,0 +1,592 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
+
+/**
+ * External-memory sorter of car prices for exact percentiles over more prices than fit in the heap.
+ * Prices are collected into a primitive run of bounded size; a full run is sorted and spilled to a temporary file
+ * through a {@link FileChannel}. Spilled runs are kept in levels: once {@code mergeFanIn} runs of one level exist,
+ * they are k-way merged into a single run of the next level, so every price is rewritten only a logarithmic number
+ * of times and the number of open runs stays small. Queries merge the runs back with one small read buffer per run:
+ * percentiles stop the merge at the highest requested rank, and counts below or above a price are binary searches
+ * in each sorted run. If nothing was spilled, everything is answered from the in-memory run.
+ * Heap use is bounded by the run size plus one buffer per merged run, no matter how many prices are added.
+ * Results are identical to {@link CarAnalysis#analyze()} on the same prices. Temporary files are deleted by
+ * {@link #close()}. I/O failures are reported as {@link UncheckedIOException}.
+ */
+public class ExternalPriceSorter implements DoubleConsumer, AutoCloseable {
+    /**
+     * Default number of prices sorted in memory before they are spilled (32 MB).
+     */
+    public static final int DEFAULT_RUN_SIZE = 1 << 22;
+
+    /**
+     * Default number of runs of one level merged into a run of the next level.
+     */
+    public static final int DEFAULT_MERGE_FAN_IN = 32;
+
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private final Path directory;
+    private final int mergeFanIn;
+    private final double[] run;
+    private int runLength;
+    private boolean runSorted;
+    private final List<SpilledRun> spilled = new ArrayList<>();
+    private long count;
+    private long spilledBytes;
+
+    /**
+     * Constructs a sorter spilling to the default temporary directory with the default run size and fan-in.
+     */
+    public ExternalPriceSorter() {
+        this(Path.of(System.getProperty("java.io.tmpdir")), DEFAULT_RUN_SIZE, DEFAULT_MERGE_FAN_IN);
+    }
+
+    /**
+     * Constructs a sorter.
+     *
+     * @param directory  Directory for the temporary run files.
+     * @param runSize    Number of prices sorted in memory before they are spilled.
+     * @param mergeFanIn Number of runs of one level merged into a run of the next level, at least 2.
+     */
+    public ExternalPriceSorter(Path directory, int runSize, int mergeFanIn) {
+        if (runSize <= 0) {
+            throw new IllegalArgumentException("Run size must be positive, got " + runSize);
+        }
+        if (mergeFanIn < 2) {
+            throw new IllegalArgumentException("Merge fan-in must be at least 2, got " + mergeFanIn);
+        }
+        this.directory = directory;
+        this.mergeFanIn = mergeFanIn;
+        this.run = new double[runSize];
+    }
+
+    /**
+     * Adds a price, spilling the in-memory run if it is full.
+     *
+     * @param price The price to add.
+     */
+    @Override
+    public void accept(double price) {
+        if (runLength == run.length) {
+            spill();
+        }
+        run[runLength++] = price;
+        runSorted = false;
+        count++;
+    }
+
+    /**
+     * Adds a range of prices, e.g. of the price column of a {@link CarTable}.
+     *
+     * @param prices The prices.
+     * @param from   Index of the first price (inclusive).
+     * @param to     Index of the last price (exclusive).
+     */
+    public void accept(double[] prices, int from, int to) {
+        while (from < to) {
+            if (runLength == run.length) {
+                spill();
+            }
+            int length = Math.min(to - from, run.length - runLength);
+            System.arraycopy(prices, from, run, runLength, length);
+            runLength += length;
+            runSorted = false;
+            count += length;
+            from += length;
+        }
+    }
+
+    /**
+     * Finds a percentile as it would be read from the sorted prices: the price at index
+     * {@code ceil(percentile / 100 * count) - 1}.
+     *
+     * @param percentile The desired percentile (e.g., 25 for Q1).
+     * @return the percentile value.
+     */
+    public double percentile(double percentile) {
+        return percentiles(percentile)[0];
+    }
+
+    /**
+     * Finds several percentiles in a single merge pass that stops at the highest of them.
+     *
+     * @param percentiles The desired percentiles.
+     * @return the percentile values in the order of the requested percentiles.
+     */
+    public double[] percentiles(double... percentiles) {
+        long[] indexes = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            indexes[i] = percentileIndex(percentiles[i]);
+        }
+        double[] values = new double[percentiles.length];
+        if (spilled.isEmpty()) {
+            sortRun();
+            for (int i = 0; i < indexes.length; i++) {
+                values[i] = run[(int) indexes[i]];
+            }
+            return values;
+        }
+        spill();
+
+        Integer[] order = new Integer[indexes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(indexes[a], indexes[b]));
+        long[] position = new long[1];
+        int[] next = new int[1];
+        merge(spilled, price -> {
+            while (next[0] < order.length && indexes[order[next[0]]] == position[0]) {
+                values[order[next[0]++]] = price;
+            }
+            position[0]++;
+            return next[0] < order.length;
+        });
+        return values;
+    }
+
+    /**
+     * Counts the prices strictly below a value with a binary search in every sorted run.
+     *
+     * @param value The value to compare with.
+     * @return the number of smaller prices.
+     */
+    public long countBelow(double value) {
+        return countBefore(value, false);
+    }
+
+    /**
+     * Counts the prices strictly above a value with a binary search in every sorted run.
+     *
+     * @param value The value to compare with.
+     * @return the number of larger prices.
+     */
+    public long countAbove(double value) {
+        return count - countBefore(value, true);
+    }
+
+    /**
+     * Performs exact analysis of data points and outliers: one partial merge pass for the quartiles
+     * and binary searches in the sorted runs for the outlier counts.
+     *
+     * @return the IQR analysis of the added prices.
+     */
+    public IqrResult analyze() {
+        double[] quartiles = percentiles(25, 75);
+        double q1 = quartiles[0];
+        double q3 = quartiles[1];
+        long outliers = countBelow(IqrResult.lowerBound(q1, q3)) + countAbove(IqrResult.upperBound(q1, q3));
+        return new IqrResult(q1, q3, count - outliers, outliers);
+    }
+
+    /**
+     * Passes all prices to a consumer in ascending order.
+     *
+     * @param consumer The consumer of the sorted prices.
+     */
+    public void forEachSorted(DoubleConsumer consumer) {
+        if (spilled.isEmpty()) {
+            sortRun();
+            for (int i = 0; i < runLength; i++) {
+                consumer.accept(run[i]);
+            }
+            return;
+        }
+        spill();
+        merge(spilled, price -> {
+            consumer.accept(price);
+            return true;
+        });
+    }
+
+    /**
+     * Gets the number of added prices.
+     *
+     * @return the number of prices.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of runs currently spilled to disk.
+     *
+     * @return the number of run files.
+     */
+    public int getRunCount() {
+        return spilled.size();
+    }
+
+    /**
+     * Gets the total number of bytes written to run files, including rewrites by merges.
+     *
+     * @return the number of spilled bytes.
+     */
+    public long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    /**
+     * Deletes the temporary run files.
+     */
+    @Override
+    public void close() {
+        IOException failure = null;
+        for (SpilledRun spilledRun : spilled) {
+            try {
+                Files.deleteIfExists(spilledRun.path);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        spilled.clear();
+        if (failure != null) {
+            throw new UncheckedIOException("Cannot delete price runs", failure);
+        }
+    }
+
+    /**
+     * Sorts the in-memory run and writes it to a new run file of level 0, then merges full levels.
+     */
+    private void spill() {
+        if (runLength == 0) {
+            return;
+        }
+        sortRun();
+        try {
+            Path path = Files.createTempFile(directory, "prices-", ".run");
+            try (RunWriter writer = new RunWriter(path)) {
+                for (int i = 0; i < runLength; i++) {
+                    writer.write(run[i]);
+                }
+            } catch (IOException | RuntimeException e) {
+                discard(path, e);
+                throw e;
+            }
+            spilled.add(new SpilledRun(path, runLength, 0));
+            spilledBytes += (long) runLength * Double.BYTES;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill prices to " + directory, e);
+        }
+        runLength = 0;
+        compact();
+    }
+
+    /**
+     * Merges the runs of every level that has reached the fan-in into one run of the next level.
+     */
+    private void compact() {
+        for (int level = 0; ; level++) {
+            List<SpilledRun> inputs = new ArrayList<>();
+            for (SpilledRun spilledRun : spilled) {
+                if (spilledRun.level == level) {
+                    inputs.add(spilledRun);
+                }
+            }
+            if (inputs.isEmpty()) {
+                return;
+            }
+            if (inputs.size() < mergeFanIn) {
+                continue;
+            }
+            long length = 0;
+            for (SpilledRun input : inputs) {
+                length += input.length;
+            }
+            try {
+                Path path = Files.createTempFile(directory, "prices-", ".run");
+                try (RunWriter writer = new RunWriter(path)) {
+                    merge(inputs, price -> {
+                        writer.write(price);
+                        return true;
+                    });
+                } catch (IOException | RuntimeException e) {
+                    discard(path, e);
+                    throw e;
+                }
+                for (SpilledRun input : inputs) {
+                    Files.deleteIfExists(input.path);
+                }
+                spilled.removeAll(inputs);
+                spilled.add(new SpilledRun(path, length, level + 1));
+                spilledBytes += length * Double.BYTES;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot merge price runs in " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Deletes a partially written run file, attaching a failure to delete it to the original failure.
+     */
+    private static void discard(Path path, Exception failure) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Merges sorted runs with a binary heap of run readers, passing prices in ascending order to the sink
+     * until it returns {@code false}.
+     */
+    private static void merge(List<SpilledRun> runs, DoublePredicate sink) {
+        RunReader[] readers = new RunReader[runs.size()];
+        try {
+            int size = 0;
+            for (SpilledRun spilledRun : runs) {
+                RunReader reader = new RunReader(spilledRun);
+                readers[size++] = reader;
+            }
+            RunReader[] heap = new RunReader[size];
+            size = 0;
+            for (RunReader reader : readers) {
+                if (reader.advance()) {
+                    heap[size++] = reader;
+                }
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(heap, i, size);
+            }
+            while (size > 0) {
+                RunReader smallest = heap[0];
+                if (!sink.test(smallest.head)) {
+                    return;
+                }
+                if (!smallest.advance()) {
+                    heap[0] = heap[--size];
+                }
+                siftDown(heap, 0, size);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read price runs", e);
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores the heap order below a position of the reader heap.
+     */
+    private static void siftDown(RunReader[] heap, int position, int size) {
+        RunReader reader = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && Double.compare(heap[child + 1].head, heap[child].head) < 0) {
+                child++;
+            }
+            if (Double.compare(heap[child].head, reader.head) >= 0) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = reader;
+    }
+
+    /**
+     * Counts the prices before a value in sorted order: those below it, or also those equal to it if inclusive.
+     */
+    private long countBefore(double value, boolean inclusive) {
+        if (spilled.isEmpty()) {
+            sortRun();
+            return inclusive
+                    ? PriceQuantiles.firstAbove(run, 0, runLength, value)
+                    : PriceQuantiles.firstNotBelow(run, 0, runLength, value);
+        }
+        spill();
+        long before = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (SpilledRun spilledRun : spilled) {
+            try (FileChannel channel = FileChannel.open(spilledRun.path, StandardOpenOption.READ)) {
+                long low = 0;
+                long high = spilledRun.length;
+                while (low < high) {
+                    long middle = (low + high) >>> 1;
+                    buffer.clear();
+                    while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, middle * Double.BYTES + buffer.position()) < 0) {
+                            throw new IOException("Unexpected end of " + spilledRun.path);
+                        }
+                    }
+                    double price = buffer.getDouble(0);
+                    if (price < value || (inclusive && price == value)) {
+                        low = middle + 1;
+                    } else {
+                        high = middle;
+                    }
+                }
+                before += low;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot search price run " + spilledRun.path, e);
+            }
+        }
+        return before;
+    }
+
+    /**
+     * Sorts the in-memory run in place unless it is already sorted; a parallel sort would allocate a scratch array
+     * as large as the run.
+     */
+    private void sortRun() {
+        if (!runSorted) {
+            Arrays.sort(run, 0, runLength);
+            runSorted = true;
+        }
+    }
+
+    /**
+     * Computes the index of a percentile within all added prices.
+     */
+    private long percentileIndex(double percentile) {
+        if (count == 0) {
+            throw new IllegalStateException("Cannot compute a percentile of no prices");
+        }
+        long offset = (long) Math.ceil(percentile / 100.0 * count) - 1;
+        return Math.min(Math.max(offset, 0), count - 1);
+    }
+
+    /**
+     * Sorted run of prices stored in a temporary file.
+     */
+    private static final class SpilledRun {
+        private final Path path;
+        private final long length;
+        private final int level;
+
+        /**
+         * Constructs a run description.
+         */
+        private SpilledRun(Path path, long length, int level) {
+            this.path = path;
+            this.length = length;
+            this.level = level;
+        }
+    }
+
+    /**
+     * Buffered writer of little-endian prices to a run file.
+     */
+    private static final class RunWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        /**
+         * Opens a run file for writing, replacing its contents.
+         */
+        private RunWriter(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * Appends a price, flushing the buffer when it is full.
+         */
+        private void write(double price) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putDouble(price);
+        }
+
+        /**
+         * Writes the buffered prices to the channel.
+         */
+        private void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write price run", e);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Buffered reader of a run file that exposes the current price as its head.
+     */
+    private static final class RunReader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long remaining;
+        private double head;
+
+        /**
+         * Opens a run file for reading.
+         */
+        private RunReader(SpilledRun spilledRun) throws IOException {
+            this.channel = FileChannel.open(spilledRun.path, StandardOpenOption.READ);
+            this.remaining = spilledRun.length;
+            buffer.limit(0);
+        }
+
+        /**
+         * Moves to the next price of the run.
+         *
+         * @return whether the run had another price.
+         */
+        private boolean advance() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            if (buffer.remaining() < Double.BYTES) {
+                buffer.compact();
+                while (buffer.position() < Double.BYTES) {
+                    if (channel.read(buffer) < 0) {
+                        throw new IOException("Unexpected end of price run");
+                    }
+                }
+                buffer.flip();
+            }
+            head = buffer.getDouble();
+            remaining--;
+            return true;
+        }
+
+        /**
+         * Closes the run file, ignoring failures since the run is only read.
+         */
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing was written, so there is nothing to lose
+            }
+        }
+    }
+}
@@ -0,0 +1,358 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+/**
+ * Price statistics of cars grouped by brand, class and manufacture year, accumulated in a single pass.
+ * Every group is a slot in parallel primitive arrays (count, minimum, maximum, mean and M2) that are updated with
+ * Welford's method; groups are found through an open-addressing hash table keyed by the packed brand code, class code
+ * and year, so adding a car allocates nothing once its group exists.
+ * Accumulators are merged with Chan's formula, which makes them usable from parallel streams, and any coarser
+ * breakdown (per brand, per class, per year or in total) is rolled up from the groups without rescanning the cars.
+ */
+public class GroupedCarStatistics {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final CarDictionary brands = new CarDictionary();
+    private final CarDictionary classes = new CarDictionary();
+    private int[] table = emptyTable(INITIAL_CAPACITY * 2);
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY];
+    private double[] mins = new double[INITIAL_CAPACITY];
+    private double[] maxs = new double[INITIAL_CAPACITY];
+    private double[] means = new double[INITIAL_CAPACITY];
+    private double[] m2s = new double[INITIAL_CAPACITY];
+    private int groupCount;
+
+    /**
+     * Adds a car to its group.
+     *
+     * @param car The car to add.
+     */
+    public void accept(Car car) {
+        accept(car.getBrand(), car.getCarClass(), car.getManufactureDate().getYear(), car.getPrice());
+    }
+
+    /**
+     * Adds a price to the group of the given brand, class and year.
+     *
+     * @param brand    The brand of the car.
+     * @param carClass The class of the car.
+     * @param year     The manufacture year of the car.
+     * @param price    The price of the car.
+     */
+    public void accept(String brand, String carClass, int year, double price) {
+        add(slot(brands.encode(brand), classes.encode(carClass), year), price);
+    }
+
+    /**
+     * Adds all cars of a table, reading its columns directly instead of materializing {@link Car} objects.
+     * Table codes are translated to this accumulator's codes once per distinct value.
+     *
+     * @param cars The table of cars.
+     */
+    public void addAll(CarTable cars) {
+        int[] brandCodes = brands.encodeAll(cars.getBrands());
+        int[] classCodes = classes.encodeAll(cars.getClasses());
+        double[] prices = cars.getPriceColumn();
+        int[] epochDays = cars.getEpochDayColumn();
+        short[] brandColumn = cars.getBrandCodeColumn();
+        short[] classColumn = cars.getClassCodeColumn();
+        for (int row = 0; row < cars.size(); row++) {
+            int brand = brandCodes[Short.toUnsignedInt(brandColumn[row])];
+            int carClass = classCodes[Short.toUnsignedInt(classColumn[row])];
+            add(slot(brand, carClass, CarTable.yearOfEpochDay(epochDays[row])), prices[row]);
+        }
+    }
+
+    /**
+     * Merges another accumulator into this one.
+     *
+     * @param other The accumulator to merge.
+     * @return this accumulator.
+     */
+    public GroupedCarStatistics merge(GroupedCarStatistics other) {
+        int[] brandCodes = brands.encodeAll(other.brands);
+        int[] classCodes = classes.encodeAll(other.classes);
+        for (int i = 0; i < other.groupCount; i++) {
+            long key = other.keys[i];
+            int slot = slot(brandCodes[brandCode(key)], classCodes[classCode(key)], year(key));
+            mergeSlot(slot, other.counts[i], other.mins[i], other.maxs[i], other.means[i], other.m2s[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Gets the number of non-empty groups.
+     *
+     * @return the number of brand, class and year combinations with at least one car.
+     */
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * Gets the statistics of one group.
+     *
+     * @param brand    The brand of the cars.
+     * @param carClass The class of the cars.
+     * @param year     The manufacture year of the cars.
+     * @return the statistics of the group, or {@code null} if it has no cars.
+     */
+    public CarStatistics get(String brand, String carClass, int year) {
+        int brandCode = brands.lookup(brand);
+        int classCode = classes.lookup(carClass);
+        if (brandCode < 0 || classCode < 0) {
+            return null;
+        }
+        int slot = find(key(brandCode, classCode, year));
+        return slot < 0 ? null : moments(slot).toStatistics();
+    }
+
+    /**
+     * Rolls the groups up per brand.
+     *
+     * @return the statistics of each brand, sorted by brand.
+     */
+    public Map<String, CarStatistics> byBrand() {
+        return rollup(slot -> brands.decode(brandCode(keys[slot])));
+    }
+
+    /**
+     * Rolls the groups up per car class.
+     *
+     * @return the statistics of each class, sorted by class.
+     */
+    public Map<String, CarStatistics> byClass() {
+        return rollup(slot -> classes.decode(classCode(keys[slot])));
+    }
+
+    /**
+     * Rolls the groups up per manufacture year.
+     *
+     * @return the statistics of each year, sorted by year.
+     */
+    public Map<Integer, CarStatistics> byYear() {
+        return rollup(slot -> year(keys[slot]));
+    }
+
+    /**
+     * Rolls all groups up into the statistics of every accumulated car.
+     *
+     * @return the overall statistics.
+     */
+    public CarStatistics total() {
+        PriceMoments total = new PriceMoments();
+        for (int slot = 0; slot < groupCount; slot++) {
+            total.merge(moments(slot));
+        }
+        return total.toStatistics();
+    }
+
+    /**
+     * Passes every group with its statistics to the consumer, in the order the groups first appeared.
+     *
+     * @param consumer The consumer of the groups.
+     */
+    public void forEach(GroupConsumer consumer) {
+        for (int slot = 0; slot < groupCount; slot++) {
+            long key = keys[slot];
+            consumer.accept(brands.decode(brandCode(key)), classes.decode(classCode(key)), year(key),
+                    moments(slot).toStatistics());
+        }
+    }
+
+    /**
+     * Consumer of one group of {@link GroupedCarStatistics}.
+     */
+    @FunctionalInterface
+    public interface GroupConsumer {
+        /**
+         * Accepts the statistics of one group.
+         *
+         * @param brand      The brand of the cars.
+         * @param carClass   The class of the cars.
+         * @param year       The manufacture year of the cars.
+         * @param statistics The statistics of the group.
+         */
+        void accept(String brand, String carClass, int year, CarStatistics statistics);
+    }
+
+    /**
+     * Merges the groups into statistics per rollup key.
+     */
+    private <K extends Comparable<K>> Map<K, CarStatistics> rollup(IntFunction<K> rollupKey) {
+        Map<K, PriceMoments> moments = new TreeMap<>();
+        for (int slot = 0; slot < groupCount; slot++) {
+            moments.computeIfAbsent(rollupKey.apply(slot), key -> new PriceMoments()).merge(moments(slot));
+        }
+        Map<K, CarStatistics> statistics = new TreeMap<>();
+        moments.forEach((key, value) -> statistics.put(key, value.toStatistics()));
+        return statistics;
+    }
+
+    /**
+     * Copies the moments of a slot into a {@link PriceMoments}.
+     */
+    private PriceMoments moments(int slot) {
+        return PriceMoments.of(counts[slot], mins[slot], maxs[slot], means[slot], m2s[slot]);
+    }
+
+    /**
+     * Adds a price to a slot with Welford's update.
+     */
+    private void add(int slot, double price) {
+        long count = ++counts[slot];
+        if (price < mins[slot]) {
+            mins[slot] = price;
+        }
+        if (price > maxs[slot]) {
+            maxs[slot] = price;
+        }
+        double delta = price - means[slot];
+        means[slot] += delta / count;
+        m2s[slot] += delta * (price - means[slot]);
+    }
+
+    /**
+     * Merges partial moments into a slot with Chan's formula.
+     */
+    private void mergeSlot(int slot, long count, double min, double max, double mean, double m2) {
+        if (counts[slot] == 0) {
+            counts[slot] = count;
+            mins[slot] = min;
+            maxs[slot] = max;
+            means[slot] = mean;
+            m2s[slot] = m2;
+            return;
+        }
+        long total = counts[slot] + count;
+        double delta = mean - means[slot];
+        means[slot] += delta * count / total;
+        m2s[slot] += m2 + delta * delta * ((double) counts[slot] * count / total);
+        counts[slot] = total;
+        mins[slot] = Math.min(mins[slot], min);
+        maxs[slot] = Math.max(maxs[slot], max);
+    }
+
+    /**
+     * Finds the slot of a group, creating an empty one if the group has not been seen before.
+     */
+    private int slot(int brandCode, int classCode, int year) {
+        long key = key(brandCode, classCode, year);
+        int mask = table.length - 1;
+        int index = hash(key) & mask;
+        while (true) {
+            int slot = table[index];
+            if (slot < 0) {
+                break;
+            }
+            if (keys[slot] == key) {
+                return slot;
+            }
+            index = (index + 1) & mask;
+        }
+        if (groupCount == keys.length) {
+            growSlots();
+        }
+        int slot = groupCount++;
+        keys[slot] = key;
+        mins[slot] = Double.POSITIVE_INFINITY;
+        maxs[slot] = Double.NEGATIVE_INFINITY;
+        table[index] = slot;
+        if (groupCount * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return slot;
+    }
+
+    /**
+     * Finds the slot of a group without creating it.
+     */
+    private int find(long key) {
+        int mask = table.length - 1;
+        int index = hash(key) & mask;
+        while (table[index] >= 0) {
+            if (keys[table[index]] == key) {
+                return table[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Doubles the slot arrays.
+     */
+    private void growSlots() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        mins = Arrays.copyOf(mins, capacity);
+        maxs = Arrays.copyOf(maxs, capacity);
+        means = Arrays.copyOf(means, capacity);
+        m2s = Arrays.copyOf(m2s, capacity);
+    }
+
+    /**
+     * Rebuilds the hash table with the given number of buckets.
+     */
+    private void rehash(int capacity) {
+        table = emptyTable(capacity);
+        int mask = capacity - 1;
+        for (int slot = 0; slot < groupCount; slot++) {
+            int index = hash(keys[slot]) & mask;
+            while (table[index] >= 0) {
+                index = (index + 1) & mask;
+            }
+            table[index] = slot;
+        }
+    }
+
+    /**
+     * Creates a hash table with all buckets empty.
+     */
+    private static int[] emptyTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, -1);
+        return table;
+    }
+
+    /**
+     * Packs a brand code, a class code and a year into a group key.
+     */
+    private static long key(int brandCode, int classCode, int year) {
+        return (long) brandCode << 48 | (long) classCode << 32 | (year & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Extracts the brand code from a group key.
+     */
+    private static int brandCode(long key) {
+        return (int) (key >>> 48);
+    }
+
+    /**
+     * Extracts the class code from a group key.
+     */
+    private static int classCode(long key) {
+        return (int) (key >>> 32) & 0xFFFF;
+    }
+
+    /**
+     * Extracts the year from a group key.
+     */
+    private static int year(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Spreads a group key over the hash table with the splitmix64 finalizer.
+     */
+    private static int hash(long key) {
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (key ^ (key >>> 31));
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * A custom collector that computes price statistics per brand, class and manufacture year in one pass
+ * into a {@link GroupedCarStatistics}, without materializing the groups.
+ */
+public class GroupedCarStatisticsCollector implements Collector<Car, GroupedCarStatistics, GroupedCarStatistics> {
+
+    @Override
+    public Supplier<GroupedCarStatistics> supplier() {
+        return GroupedCarStatistics::new;
+    }
+
+    @Override
+    public BiConsumer<GroupedCarStatistics, Car> accumulator() {
+        return GroupedCarStatistics::accept;
+    }
+
+    @Override
+    public BinaryOperator<GroupedCarStatistics> combiner() {
+        return GroupedCarStatistics::merge;
+    }
+
+    @Override
+    public Function<GroupedCarStatistics, GroupedCarStatistics> finisher() {
+        return Function.identity();
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Set.of(Characteristics.IDENTITY_FINISH, Characteristics.UNORDERED);
+    }
+}
@@ -0,0 +1,240 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Cached price analysis of a growing {@link CarTable}.
+ * The rows of the table are split into fixed-size segments, and each segment keeps mergeable summaries of its prices:
+ * the {@link PriceMoments} and a sorted copy of the prices. When cars are appended, only the rows added since the
+ * last refresh are summarized (the last, partially filled segment is extended by merging in its sorted new prices),
+ * and rows changed in place are handled by {@link #invalidate(int, int)}, which marks just the affected segments
+ * for a rebuild. Statistics are then merged from the segment moments, and the exact IQR analysis selects the
+ * quartiles across the sorted segments by binary search, so a refresh costs time proportional to the new or changed
+ * rows plus a small term per segment instead of a pass over the whole table.
+ * The results are identical to {@link CarAnalysis#analyze()} on the same prices.
+ */
+public class IncrementalCarAnalysis {
+    /**
+     * Default number of rows in a segment.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 16;
+
+    private final CarTable cars;
+    private final int segmentSize;
+    private final List<double[]> sortedSegments = new ArrayList<>();
+    private final List<PriceMoments> segmentMoments = new ArrayList<>();
+    private final BitSet dirtySegments = new BitSet();
+    private int summarizedRows;
+    private CarStatistics statistics;
+    private IqrResult iqrResult;
+
+    /**
+     * Constructs an analysis of the given table with the default segment size.
+     *
+     * @param cars The table to analyze; cars may be appended to it between calls.
+     */
+    public IncrementalCarAnalysis(CarTable cars) {
+        this(cars, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructs an analysis of the given table.
+     *
+     * @param cars        The table to analyze; cars may be appended to it between calls.
+     * @param segmentSize Number of rows summarized together; smaller segments make in-place changes cheaper to
+     *                    refresh and quartile selection slightly more expensive.
+     */
+    public IncrementalCarAnalysis(CarTable cars, int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive, got " + segmentSize);
+        }
+        this.cars = cars;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Marks rows whose prices were changed in place, so the segments holding them are rebuilt on the next refresh.
+     * Appended rows are picked up automatically and need no invalidation.
+     *
+     * @param fromRow Index of the first changed row (inclusive).
+     * @param toRow   Index of the last changed row (exclusive).
+     */
+    public void invalidate(int fromRow, int toRow) {
+        if (fromRow < 0 || fromRow > toRow) {
+            throw new IndexOutOfBoundsException("Invalid row range [" + fromRow + ", " + toRow + ")");
+        }
+        if (fromRow >= summarizedRows) {
+            return;
+        }
+        int lastRow = Math.min(toRow, summarizedRows) - 1;
+        if (lastRow >= fromRow) {
+            dirtySegments.set(fromRow / segmentSize, lastRow / segmentSize + 1);
+            statistics = null;
+            iqrResult = null;
+        }
+    }
+
+    /**
+     * Gets the price statistics of all cars of the table, refreshing the summaries first.
+     *
+     * @return the statistics of all cars.
+     */
+    public CarStatistics getStatistics() {
+        refresh();
+        if (statistics == null) {
+            PriceMoments total = new PriceMoments();
+            for (PriceMoments moments : segmentMoments) {
+                total.merge(moments);
+            }
+            statistics = total.toStatistics();
+        }
+        return statistics;
+    }
+
+    /**
+     * Performs exact analysis of data points and outliers, refreshing the summaries first.
+     *
+     * @return the IQR analysis of all car prices.
+     * @throws IllegalArgumentException if the table is empty.
+     */
+    public IqrResult analyze() {
+        refresh();
+        if (iqrResult == null) {
+            int size = summarizedRows;
+            double q1 = select(PriceQuantiles.percentileIndex(0, size, 25));
+            double q3 = select(PriceQuantiles.percentileIndex(0, size, 75));
+            double lowerBound = IqrResult.lowerBound(q1, q3);
+            double upperBound = IqrResult.upperBound(q1, q3);
+            long outliers = 0;
+            for (double[] sorted : sortedSegments) {
+                outliers += PriceQuantiles.firstNotBelow(sorted, 0, sorted.length, lowerBound)
+                        + sorted.length - PriceQuantiles.firstAbove(sorted, 0, sorted.length, upperBound);
+            }
+            iqrResult = new IqrResult(q1, q3, size - outliers, outliers);
+        }
+        return iqrResult;
+    }
+
+    /**
+     * Gets the number of rows covered by the summaries, i.e. the table size at the last refresh.
+     *
+     * @return the number of summarized rows.
+     */
+    public int getSummarizedRows() {
+        return summarizedRows;
+    }
+
+    /**
+     * Gets the number of segments the summarized rows are split into.
+     *
+     * @return the number of segments.
+     */
+    public int getSegmentCount() {
+        return sortedSegments.size();
+    }
+
+    /**
+     * Brings the summaries up to date with the table: rebuilds invalidated segments and summarizes appended rows.
+     */
+    public void refresh() {
+        int size = cars.size();
+        if (size < summarizedRows) {
+            throw new IllegalStateException("Table shrank from " + summarizedRows + " to " + size + " rows");
+        }
+        if (size == summarizedRows && dirtySegments.isEmpty()) {
+            return;
+        }
+        double[] prices = cars.getPriceColumn();
+        for (int segment = dirtySegments.nextSetBit(0); segment >= 0; segment = dirtySegments.nextSetBit(segment + 1)) {
+            int from = segment * segmentSize;
+            int to = Math.min(from + segmentSize, summarizedRows);
+            double[] sorted = Arrays.copyOfRange(prices, from, to);
+            Arrays.sort(sorted);
+            sortedSegments.set(segment, sorted);
+            segmentMoments.set(segment, PriceKernels.moments(prices, from, to));
+        }
+        dirtySegments.clear();
+
+        int row = summarizedRows;
+        if (row % segmentSize != 0) {
+            // Extend the partially filled last segment
+            int to = Math.min(size, row - row % segmentSize + segmentSize);
+            int last = sortedSegments.size() - 1;
+            sortedSegments.set(last, mergeSorted(sortedSegments.get(last), prices, row, to));
+            segmentMoments.get(last).merge(PriceKernels.moments(prices, row, to));
+            row = to;
+        }
+        for (; row < size; row += segmentSize) {
+            int to = Math.min(size, row + segmentSize);
+            double[] sorted = Arrays.copyOfRange(prices, row, to);
+            Arrays.sort(sorted);
+            sortedSegments.add(sorted);
+            segmentMoments.add(PriceKernels.moments(prices, row, to));
+        }
+        summarizedRows = size;
+        statistics = null;
+        iqrResult = null;
+    }
+
+    /**
+     * Finds the price of the given rank across the sorted segments.
+     * Each step takes the middle price of the widest remaining range as a pivot and narrows every range to the prices
+     * below, equal to or above it, depending on where the rank falls, which at least halves the widest range.
+     */
+    private double select(long rank) {
+        int segments = sortedSegments.size();
+        int[] lows = new int[segments];
+        int[] highs = new int[segments];
+        for (int i = 0; i < segments; i++) {
+            highs[i] = sortedSegments.get(i).length;
+        }
+        int[] belowEnds = new int[segments];
+        int[] equalEnds = new int[segments];
+        while (true) {
+            int widest = 0;
+            for (int i = 1; i < segments; i++) {
+                if (highs[i] - lows[i] > highs[widest] - lows[widest]) {
+                    widest = i;
+                }
+            }
+            double pivot = sortedSegments.get(widest)[(lows[widest] + highs[widest]) >>> 1];
+            long below = 0;
+            long notAbove = 0;
+            for (int i = 0; i < segments; i++) {
+                double[] sorted = sortedSegments.get(i);
+                belowEnds[i] = PriceQuantiles.firstNotBelow(sorted, lows[i], highs[i], pivot);
+                equalEnds[i] = PriceQuantiles.firstAbove(sorted, belowEnds[i], highs[i], pivot);
+                below += belowEnds[i] - lows[i];
+                notAbove += equalEnds[i] - lows[i];
+            }
+            if (rank < below) {
+                System.arraycopy(belowEnds, 0, highs, 0, segments);
+            } else if (rank < notAbove) {
+                return pivot;
+            } else {
+                rank -= notAbove;
+                System.arraycopy(equalEnds, 0, lows, 0, segments);
+            }
+        }
+    }
+
+    /**
+     * Merges a sorted segment with the unsorted prices of a column range into a new sorted array.
+     */
+    private static double[] mergeSorted(double[] sorted, double[] prices, int from, int to) {
+        double[] added = Arrays.copyOfRange(prices, from, to);
+        Arrays.sort(added);
+        double[] merged = new double[sorted.length + added.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < sorted.length && j < added.length) {
+            merged[k++] = Double.compare(sorted[i], added[j]) <= 0 ? sorted[i++] : added[j++];
+        }
+        System.arraycopy(sorted, i, merged, k, sorted.length - i);
+        System.arraycopy(added, j, merged, k + sorted.length - i, added.length - j);
+        return merged;
+    }
+
+}
@@ -0,0 +1,118 @@
+/**
+ * Result of an interquartile range (IQR) analysis: quartiles, outlier bounds and the number of data points and outliers.
+ */
+public class IqrResult {
+    private final double q1;
+    private final double q3;
+    private final long dataCount;
+    private final long outlierCount;
+
+    /**
+     * Constructs an IQR result.
+     *
+     * @param q1           The first quartile.
+     * @param q3           The third quartile.
+     * @param dataCount    Number of prices within the outlier bounds.
+     * @param outlierCount Number of prices outside the outlier bounds.
+     */
+    public IqrResult(double q1, double q3, long dataCount, long outlierCount) {
+        this.q1 = q1;
+        this.q3 = q3;
+        this.dataCount = dataCount;
+        this.outlierCount = outlierCount;
+    }
+
+    /**
+     * Computes the lower outlier bound {@code Q1 - 1.5 * IQR}.
+     *
+     * @param q1 The first quartile.
+     * @param q3 The third quartile.
+     * @return the lower outlier bound.
+     */
+    public static double lowerBound(double q1, double q3) {
+        return q1 - 1.5 * (q3 - q1);
+    }
+
+    /**
+     * Computes the upper outlier bound {@code Q3 + 1.5 * IQR}.
+     *
+     * @param q1 The first quartile.
+     * @param q3 The third quartile.
+     * @return the upper outlier bound.
+     */
+    public static double upperBound(double q1, double q3) {
+        return q3 + 1.5 * (q3 - q1);
+    }
+
+    /**
+     * Gets the first quartile.
+     *
+     * @return the first quartile.
+     */
+    public double getQ1() {
+        return q1;
+    }
+
+    /**
+     * Gets the third quartile.
+     *
+     * @return the third quartile.
+     */
+    public double getQ3() {
+        return q3;
+    }
+
+    /**
+     * Gets the interquartile range.
+     *
+     * @return the interquartile range.
+     */
+    public double getIqr() {
+        return q3 - q1;
+    }
+
+    /**
+     * Gets the lower outlier bound.
+     *
+     * @return the lower outlier bound.
+     */
+    public double getLowerBound() {
+        return lowerBound(q1, q3);
+    }
+
+    /**
+     * Gets the upper outlier bound.
+     *
+     * @return the upper outlier bound.
+     */
+    public double getUpperBound() {
+        return upperBound(q1, q3);
+    }
+
+    /**
+     * Gets the number of prices within the outlier bounds.
+     *
+     * @return the number of data points.
+     */
+    public long getDataCount() {
+        return dataCount;
+    }
+
+    /**
+     * Gets the number of prices outside the outlier bounds.
+     *
+     * @return the number of outliers.
+     */
+    public long getOutlierCount() {
+        return outlierCount;
+    }
+
+    /**
+     * Prints the number of data points and outliers.
+     */
+    public void printResult() {
+        try (ReportWriter report = ReportWriter.stdout()) {
+            report.writeIqrResult(this);
+        }
+    }
+}
@@ -1,13 +1,15 @@
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * The main class to run the car analysis program.
- * It generates random car data, filters the cars based on user input, and displays the results.
+ * It generates random car data or reads it from the sources given on the command line,
+ * filters the cars based on user input, and displays the results.
  * Additionally, it calculates statistics and identifies outliers in the car prices.
  */
 public class Main {
@@ -18,7 +20,8 @@ public class Main {
      * filters them based on the user-defined criteria, and displays detailed information
      * about the filtered cars. It also computes and displays car statistics and outliers.
      *
-     * @param args Command-line arguments (not used).
+     * @param args Optional car sources: CSV files, directories of CSV exports or {@code host:port} sockets.
+     *             Random cars are generated when no source is given.
      */
     public static void main(String[] args) {
 
@@ -38,34 +41,61 @@ public class Main {
         int lastFullMonth = scanner.nextInt();
         scanner.close();
 
-        // Generate a list of random cars, with some skipped based on user input
-        List<Car> cars = CarGenerator.generateCars().gather(new CarGatherer(n, carBrand, 500)).toList();
+        // Read cars from the given sources on virtual threads, or generate random cars if there are none
+        List<CarSource> sources = CarSource.of(args);
+        CarIngestion ingestion = sources.isEmpty() ? null : new CarIngestion(sources);
+        Stream<Car> input = ingestion == null ? CarGenerator.generateCars() : ingestion.stream();
 
-        // Filter cars based on their manufacturing date (months between manufacture date and current date)
-        Map<String, List<Car>> filterCars = cars.stream()
-                .filter(car -> {
-                    int currentDate = (int) ChronoUnit.MONTHS.between(car.getManufactureDate(), LocalDate.now());
-                    return firstFullMonth < currentDate && currentDate < lastFullMonth;
-                })
-                .collect(Collectors.groupingBy(Car::getCarClass));
+        // Collect a table of cars, with some skipped based on user input
+        CarTable cars;
+        try (input; PipelineMetrics.StageTimer timer = PipelineMetrics.start(ingestion == null ? "generate" : "ingest")) {
+            cars = input.gather(new CarGatherer(n, carBrand, 500))
+                    .collect(new CarTableCollector());
+            timer.setElements(cars.size());
+        }
 
-        // Display the filtered cars grouped by car class
-        filterCars.forEach((carClass, carList) -> {
-            System.out.println("\nCar Class: " + carClass);
-            carList.forEach(car -> {
-                System.out.printf("\tCar: %s - %s, year - %d, price - %.2f UAH, class - %s%n",
-                        car.getBrand(), car.getModel(),
-                        car.getManufactureDate().getYear(),
-                        car.getPrice(), car.getCarClass());
-            });
-        });
+        // Filter cars based on their manufacturing date (months between manufacture date and current date),
+        // resolving the month bounds once so every row is checked with two integer comparisons
+        ManufactureWindow window = ManufactureWindow.ofFullMonths(firstFullMonth, lastFullMonth, LocalDate.now());
+        Map<String, List<Car>> filterCars;
+        long filteredCount;
+        try (PipelineMetrics.StageTimer timer = PipelineMetrics.start("filter")) {
+            filterCars = IntStream.range(0, cars.size())
+                    .filter(row -> window.contains(cars.getEpochDay(row)))
+                    .mapToObj(cars::getCar)
+                    .collect(Collectors.groupingBy(Car::getCarClass));
+            filteredCount = filterCars.values().stream().mapToLong(List::size).sum();
+            timer.setElements(filteredCount);
+        }
 
-        // Calculate and display car statistics (min, max, average price, standard deviation)
-        CarStatistics statistics = cars.stream().collect(new CarStatisticsCollector());
-        statistics.getStats();
+        // Calculate car statistics (min, max, average price, standard deviation)
+        CarStatistics statistics;
+        try (PipelineMetrics.StageTimer timer = PipelineMetrics.start("statistics").setElements(cars.size())) {
+            statistics = PriceKernels.moments(cars.getPriceColumn(), 0, cars.size()).toStatistics();
+        }
 
-        // Analyze and display the number of data points and outliers in car prices
-        CarAnalysis carAnalysis = new CarAnalysis(cars);
-        carAnalysis.analyze();
+        // Analyze the number of data points and outliers in car prices
+        IqrResult iqrResult;
+        try (PipelineMetrics.StageTimer timer = PipelineMetrics.start("analysis").setElements(cars.size())) {
+            CarAnalysis carAnalysis = new CarAnalysis(cars);
+            iqrResult = carAnalysis.analyze();
+        }
+
+        // Display the filtered cars grouped by car class, the statistics and the outliers through one buffered writer
+        try (ReportWriter report = ReportWriter.stdout()) {
+            // Flush inside the stage so it measures the writes to stdout and not only the encoding into the buffer
+            try (PipelineMetrics.StageTimer timer = PipelineMetrics.start("report").setElements(filteredCount)) {
+                report.writeGroups(filterCars)
+                        .writeStatistics(statistics)
+                        .writeIqrResult(iqrResult)
+                        .flush();
+            }
+            if (ingestion != null) {
+                report.writeSourceStatistics(ingestion.getSourceStatistics());
+            }
+            if (PipelineMetrics.isEnabled()) {
+                report.writeStageMetrics(PipelineMetrics.getStages());
+            }
+        }
     }
 }
@@ -0,0 +1,91 @@
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Range of manufacture dates whose number of full months until a fixed reference date lies strictly between two bounds.
+ * The month condition is resolved once into an inclusive epoch-day interval, so checking a car is a pair of integer
+ * comparisons instead of a {@link ChronoUnit#MONTHS} computation per car.
+ */
+public class ManufactureWindow {
+    private final long fromEpochDay;
+    private final long toEpochDay;
+
+    /**
+     * Constructs a window over the inclusive epoch-day interval.
+     *
+     * @param fromEpochDay First epoch day in the window.
+     * @param toEpochDay   Last epoch day in the window.
+     */
+    public ManufactureWindow(long fromEpochDay, long toEpochDay) {
+        this.fromEpochDay = fromEpochDay;
+        this.toEpochDay = toEpochDay;
+    }
+
+    /**
+     * Creates the window of dates {@code d} for which
+     * {@code firstFullMonth < MONTHS.between(d, reference) < lastFullMonth}.
+     *
+     * @param firstFullMonth The exclusive lower bound of full months since manufacturing.
+     * @param lastFullMonth  The exclusive upper bound of full months since manufacturing.
+     * @param reference      The date the months are counted to.
+     * @return the window of matching manufacture dates.
+     */
+    public static ManufactureWindow ofFullMonths(int firstFullMonth, int lastFullMonth, LocalDate reference) {
+        long from = lastDayWithAtLeast(lastFullMonth, reference) + 1;
+        long to = lastDayWithAtLeast(firstFullMonth + 1L, reference);
+        return new ManufactureWindow(from, to);
+    }
+
+    /**
+     * Finds the last date {@code d} with {@code MONTHS.between(d, reference) >= months}.
+     * The month count never grows as {@code d} moves forward, so the estimate {@code reference.minusMonths(months)}
+     * only needs to be corrected by the few days lost to month-length clamping.
+     */
+    private static long lastDayWithAtLeast(long months, LocalDate reference) {
+        LocalDate day = reference.minusMonths(months);
+        while (ChronoUnit.MONTHS.between(day, reference) < months) {
+            day = day.minusDays(1);
+        }
+        while (ChronoUnit.MONTHS.between(day.plusDays(1), reference) >= months) {
+            day = day.plusDays(1);
+        }
+        return day.toEpochDay();
+    }
+
+    /**
+     * Checks whether a manufacture date lies in the window.
+     *
+     * @param epochDay The manufacture date as an epoch day.
+     * @return true if the date lies in the window.
+     */
+    public boolean contains(long epochDay) {
+        return fromEpochDay <= epochDay && epochDay <= toEpochDay;
+    }
+
+    /**
+     * Checks whether the window contains no dates.
+     *
+     * @return true if the window is empty.
+     */
+    public boolean isEmpty() {
+        return fromEpochDay > toEpochDay;
+    }
+
+    /**
+     * Gets the first epoch day in the window.
+     *
+     * @return the first epoch day.
+     */
+    public long getFromEpochDay() {
+        return fromEpochDay;
+    }
+
+    /**
+     * Gets the last epoch day in the window.
+     *
+     * @return the last epoch day.
+     */
+    public long getToEpochDay() {
+        return toEpochDay;
+    }
+}
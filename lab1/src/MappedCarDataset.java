@@ -0,0 +1,227 @@
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Read-only view of a car dataset file written by {@link CarDatasetFile}.
+ * The file is memory-mapped and columns are read in place, so opening the dataset only loads the dictionaries,
+ * and scans read prices and dates straight from the page cache without creating {@link Car} objects.
+ */
+public class MappedCarDataset implements AutoCloseable {
+    private final Arena arena;
+    private final MemorySegment file;
+    private final long size;
+    private final long priceOffset;
+    private final long epochDayOffset;
+    private final long brandOffset;
+    private final long modelOffset;
+    private final long classOffset;
+    private final CarDictionary brands = new CarDictionary();
+    private final CarDictionary models = new CarDictionary();
+    private final CarDictionary classes = new CarDictionary();
+
+    /**
+     * Constructs a dataset over a mapped file and reads its header and dictionaries.
+     */
+    private MappedCarDataset(Arena arena, MemorySegment file) throws IOException {
+        this.arena = arena;
+        this.file = file;
+        if (file.byteSize() < CarDatasetFile.HEADER_SIZE || file.get(CarDatasetFile.INT, 0) != CarDatasetFile.MAGIC) {
+            throw new IOException("Not a car dataset file");
+        }
+        int version = file.get(CarDatasetFile.INT, 4);
+        if (version != CarDatasetFile.VERSION) {
+            throw new IOException("Unsupported car dataset version: " + version);
+        }
+        this.size = file.get(CarDatasetFile.LONG, 8);
+        long columnOffset = file.get(CarDatasetFile.LONG, 16);
+
+        long offset = CarDatasetFile.HEADER_SIZE;
+        for (CarDictionary dictionary : new CarDictionary[]{brands, models, classes}) {
+            int count = file.get(CarDatasetFile.INT, offset);
+            offset += Integer.BYTES;
+            for (int i = 0; i < count; i++) {
+                int length = file.get(CarDatasetFile.INT, offset);
+                offset += Integer.BYTES;
+                byte[] bytes = file.asSlice(offset, length).toArray(ValueLayout.JAVA_BYTE);
+                dictionary.encode(new String(bytes, StandardCharsets.UTF_8));
+                offset += length;
+            }
+        }
+
+        this.priceOffset = CarDatasetFile.priceOffset(columnOffset);
+        this.epochDayOffset = CarDatasetFile.epochDayOffset(columnOffset, size);
+        this.brandOffset = CarDatasetFile.codeOffset(columnOffset, size, 0);
+        this.modelOffset = CarDatasetFile.codeOffset(columnOffset, size, 1);
+        this.classOffset = CarDatasetFile.codeOffset(columnOffset, size, 2);
+        if (CarDatasetFile.codeOffset(columnOffset, size, 3) > file.byteSize()) {
+            throw new IOException("Car dataset file is truncated");
+        }
+    }
+
+    /**
+     * Maps a car dataset file for reading.
+     *
+     * @param path The path of the file.
+     * @return the mapped dataset.
+     * @throws IOException if the file cannot be read or is not a car dataset.
+     */
+    static MappedCarDataset open(Path path) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return new MappedCarDataset(arena, file);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of cars in the dataset.
+     *
+     * @return the number of cars.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the price of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the price of the car.
+     */
+    public double getPrice(long row) {
+        return file.get(CarDatasetFile.DOUBLE, priceOffset + checkRow(row) * Double.BYTES);
+    }
+
+    /**
+     * Gets the manufacture date of the car in the given row as an epoch day.
+     *
+     * @param row Index of the row.
+     * @return the number of days since 1970-01-01.
+     */
+    public int getEpochDay(long row) {
+        return file.get(CarDatasetFile.INT, epochDayOffset + checkRow(row) * Integer.BYTES);
+    }
+
+    /**
+     * Gets the brand of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the brand of the car.
+     */
+    public String getBrand(long row) {
+        return brands.decode(code(brandOffset, row));
+    }
+
+    /**
+     * Gets the model of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the model of the car.
+     */
+    public String getModel(long row) {
+        return models.decode(code(modelOffset, row));
+    }
+
+    /**
+     * Gets the class of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the class of the car.
+     */
+    public String getCarClass(long row) {
+        return classes.decode(code(classOffset, row));
+    }
+
+    /**
+     * Materializes the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return a new {@link Car} with the row's values.
+     */
+    public Car getCar(long row) {
+        return new Car(getBrand(row), getModel(row), LocalDate.ofEpochDay(getEpochDay(row)),
+                getCarClass(row), getPrice(row));
+    }
+
+    /**
+     * Streams the prices of all cars straight from the mapped file.
+     *
+     * @return a stream of prices.
+     */
+    public DoubleStream prices() {
+        return LongStream.range(0, size).mapToDouble(this::getPrice);
+    }
+
+    /**
+     * Computes the price moments by scanning the mapped price column with {@link PriceKernels}.
+     *
+     * @return the moments of all prices.
+     */
+    public PriceMoments priceMoments() {
+        return PriceKernels.moments(file.asSlice(priceOffset, size * Double.BYTES), size);
+    }
+
+    /**
+     * Streams all cars, materializing each row as a {@link Car}.
+     *
+     * @return a stream of cars.
+     */
+    public Stream<Car> stream() {
+        return LongStream.range(0, size).mapToObj(this::getCar);
+    }
+
+    /**
+     * Loads the dataset into a heap {@link CarTable}.
+     *
+     * @return a new table with all cars of the dataset.
+     */
+    public CarTable toTable() {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Dataset is too large for a heap table: " + size + " cars");
+        }
+        CarTable table = new CarTable(brands, models, classes, (int) size);
+        for (long row = 0; row < size; row++) {
+            table.addEncoded(code(brandOffset, row), code(modelOffset, row), code(classOffset, row),
+                    getEpochDay(row), getPrice(row));
+        }
+        return table;
+    }
+
+    /**
+     * Unmaps the file.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Reads an unsigned 16-bit dictionary code from a code column.
+     */
+    private int code(long columnOffset, long row) {
+        return Short.toUnsignedInt(file.get(CarDatasetFile.SHORT, columnOffset + checkRow(row) * Short.BYTES));
+    }
+
+    /**
+     * Checks that a row index lies within the dataset.
+     */
+    private long checkRow(long row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside of dataset of size " + size);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,350 @@
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Car table stored outside of the Java heap.
+ * Every car is a fixed {@link #CAR_LAYOUT} struct (price, epoch day and the brand, model and class dictionary codes)
+ * in native memory, allocated in chunks of {@link #CHUNK_ROWS} cars from a shared {@link Arena}.
+ * The heap only holds the dictionaries and the list of chunks, so the garbage collector has nothing to trace no matter
+ * how many cars are stored, and {@link Car} objects exist only while a {@link #stream()} pipeline looks at them.
+ * Cars are appended from a single thread; once filled, the table can be read from parallel streams.
+ * The memory is released by {@link #close()}.
+ */
+public class OffHeapCarTable implements AutoCloseable {
+    /**
+     * Memory layout of one car: 8-byte price, 4-byte epoch day, three 2-byte codes and padding to 24 bytes,
+     * which keeps the price of every car 8-byte aligned.
+     */
+    public static final StructLayout CAR_LAYOUT = MemoryLayout.structLayout(
+            ValueLayout.JAVA_DOUBLE.withName("price"),
+            ValueLayout.JAVA_INT.withName("epochDay"),
+            ValueLayout.JAVA_SHORT.withName("brandCode"),
+            ValueLayout.JAVA_SHORT.withName("modelCode"),
+            ValueLayout.JAVA_SHORT.withName("classCode"),
+            MemoryLayout.paddingLayout(6)
+    ).withName("car");
+
+    /**
+     * Number of cars in each allocated chunk.
+     */
+    public static final int CHUNK_ROWS = 1 << 16;
+
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_ROWS);
+    private static final long CAR_SIZE = CAR_LAYOUT.byteSize();
+    private static final long PRICE = offsetOf("price");
+    private static final long EPOCH_DAY = offsetOf("epochDay");
+    private static final long BRAND_CODE = offsetOf("brandCode");
+    private static final long MODEL_CODE = offsetOf("modelCode");
+    private static final long CLASS_CODE = offsetOf("classCode");
+
+    private final Arena arena = Arena.ofShared();
+    private final List<MemorySegment> chunks = new ArrayList<>();
+    private final CarDictionary brands = new CarDictionary();
+    private final CarDictionary models = new CarDictionary();
+    private final CarDictionary classes = new CarDictionary();
+    private long size;
+
+    /**
+     * Appends a car to the table.
+     *
+     * @param car The car to append.
+     */
+    public void add(Car car) {
+        add(car.getBrand(), car.getModel(), car.getManufactureDate(), car.getCarClass(), car.getPrice());
+    }
+
+    /**
+     * Appends a car given by its attribute values.
+     *
+     * @param brand           The car brand.
+     * @param model           The car model.
+     * @param manufactureDate The manufacture date.
+     * @param carClass        The class of the car.
+     * @param price           The price of the car.
+     */
+    public void add(String brand, String model, LocalDate manufactureDate, String carClass, double price) {
+        addEncoded(brands.encode(brand), models.encode(model), classes.encode(carClass),
+                (int) manufactureDate.toEpochDay(), price);
+    }
+
+    /**
+     * Appends a car whose attributes are already encoded with this table's dictionaries.
+     *
+     * @param brandCode Code of the brand.
+     * @param modelCode Code of the model.
+     * @param classCode Code of the class.
+     * @param epochDay  Manufacture date as a number of days since 1970-01-01.
+     * @param price     The price of the car.
+     */
+    public void addEncoded(int brandCode, int modelCode, int classCode, int epochDay, double price) {
+        int offsetInChunk = (int) (size & (CHUNK_ROWS - 1));
+        if (offsetInChunk == 0) {
+            chunks.add(arena.allocate(CAR_SIZE * CHUNK_ROWS, CAR_LAYOUT.byteAlignment()));
+        }
+        MemorySegment chunk = chunks.get(chunks.size() - 1);
+        long base = offsetInChunk * CAR_SIZE;
+        chunk.set(ValueLayout.JAVA_DOUBLE, base + PRICE, price);
+        chunk.set(ValueLayout.JAVA_INT, base + EPOCH_DAY, epochDay);
+        chunk.set(ValueLayout.JAVA_SHORT, base + BRAND_CODE, (short) brandCode);
+        chunk.set(ValueLayout.JAVA_SHORT, base + MODEL_CODE, (short) modelCode);
+        chunk.set(ValueLayout.JAVA_SHORT, base + CLASS_CODE, (short) classCode);
+        size++;
+    }
+
+    /**
+     * Appends all rows of a heap table, translating its dictionary codes once per distinct value.
+     *
+     * @param other The table whose rows are appended.
+     */
+    public void addAll(CarTable other) {
+        int[] brandCodes = brands.encodeAll(other.getBrands());
+        int[] modelCodes = models.encodeAll(other.getModels());
+        int[] classCodes = classes.encodeAll(other.getClasses());
+        for (int row = 0; row < other.size(); row++) {
+            addEncoded(brandCodes[other.getBrandCode(row)], modelCodes[other.getModelCode(row)],
+                    classCodes[other.getClassCode(row)], other.getEpochDay(row), other.getPrice(row));
+        }
+    }
+
+    /**
+     * Gets the number of cars in the table.
+     *
+     * @return the number of cars.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the price of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the price of the car.
+     */
+    public double getPrice(long row) {
+        return chunk(row).get(ValueLayout.JAVA_DOUBLE, base(row) + PRICE);
+    }
+
+    /**
+     * Gets the manufacture date of the car in the given row as an epoch day.
+     *
+     * @param row Index of the row.
+     * @return the number of days since 1970-01-01.
+     */
+    public int getEpochDay(long row) {
+        return chunk(row).get(ValueLayout.JAVA_INT, base(row) + EPOCH_DAY);
+    }
+
+    /**
+     * Gets the brand of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the brand of the car.
+     */
+    public String getBrand(long row) {
+        return brands.decode(code(row, BRAND_CODE));
+    }
+
+    /**
+     * Gets the model of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the model of the car.
+     */
+    public String getModel(long row) {
+        return models.decode(code(row, MODEL_CODE));
+    }
+
+    /**
+     * Gets the class of the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return the class of the car.
+     */
+    public String getCarClass(long row) {
+        return classes.decode(code(row, CLASS_CODE));
+    }
+
+    /**
+     * Materializes the car in the given row.
+     *
+     * @param row Index of the row.
+     * @return a new {@link Car} with the row's values.
+     */
+    public Car getCar(long row) {
+        return new Car(getBrand(row), getModel(row), LocalDate.ofEpochDay(getEpochDay(row)),
+                getCarClass(row), getPrice(row));
+    }
+
+    /**
+     * Gets the dictionary of brands.
+     *
+     * @return the brand dictionary.
+     */
+    public CarDictionary getBrands() {
+        return brands;
+    }
+
+    /**
+     * Gets the dictionary of models.
+     *
+     * @return the model dictionary.
+     */
+    public CarDictionary getModels() {
+        return models;
+    }
+
+    /**
+     * Gets the dictionary of car classes.
+     *
+     * @return the class dictionary.
+     */
+    public CarDictionary getClasses() {
+        return classes;
+    }
+
+    /**
+     * Streams the prices of all cars straight from native memory.
+     * The stream splits at chunk boundaries and walks each chunk sequentially, so it parallelizes well.
+     * It covers the cars present when it is created; cars added later are not part of it.
+     *
+     * @return a stream of prices.
+     */
+    public DoubleStream prices() {
+        return StreamSupport.doubleStream(new PriceSpliterator(0, size), false);
+    }
+
+    /**
+     * Streams all cars, materializing each row as a short-lived {@link Car}.
+     * This is the view to run {@link CarStatisticsCollector} or other car collectors over the table.
+     *
+     * @return a stream of cars.
+     */
+    public Stream<Car> stream() {
+        return LongStream.range(0, size).mapToObj(this::getCar);
+    }
+
+    /**
+     * Computes the price moments of all cars in one pass over native memory.
+     *
+     * @return the moments of all prices.
+     */
+    public PriceMoments priceMoments() {
+        PriceMoments moments = new PriceMoments();
+        prices().forEach(moments);
+        return moments;
+    }
+
+    /**
+     * Releases the native memory of the table. The table must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Gets the chunk holding the given row.
+     */
+    private MemorySegment chunk(long row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside of table of size " + size);
+        }
+        return chunks.get((int) (row >>> CHUNK_SHIFT));
+    }
+
+    /**
+     * Computes the byte offset of a row within its chunk.
+     */
+    private static long base(long row) {
+        return (row & (CHUNK_ROWS - 1)) * CAR_SIZE;
+    }
+
+    /**
+     * Reads an unsigned 16-bit dictionary code of a row.
+     */
+    private int code(long row, long field) {
+        return Short.toUnsignedInt(chunk(row).get(ValueLayout.JAVA_SHORT, base(row) + field));
+    }
+
+    /**
+     * Gets the byte offset of a named field of the car layout.
+     */
+    private static long offsetOf(String field) {
+        return CAR_LAYOUT.byteOffset(MemoryLayout.PathElement.groupElement(field));
+    }
+
+    /**
+     * Spliterator over the prices of a row range, reading the price field of each struct in place.
+     */
+    private class PriceSpliterator implements Spliterator.OfDouble {
+        private long row;
+        private final long fence;
+
+        /**
+         * Constructs a spliterator over the rows {@code [origin, fence)}.
+         */
+        PriceSpliterator(long origin, long fence) {
+            this.row = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (row >= fence) {
+                return false;
+            }
+            action.accept(getPrice(row++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            while (row < fence) {
+                MemorySegment chunk = chunks.get((int) (row >>> CHUNK_SHIFT));
+                long chunkEnd = Math.min(fence, ((row >>> CHUNK_SHIFT) + 1) << CHUNK_SHIFT);
+                for (long offset = base(row) + PRICE; row < chunkEnd; row++, offset += CAR_SIZE) {
+                    action.accept(chunk.get(ValueLayout.JAVA_DOUBLE, offset));
+                }
+            }
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            long remaining = fence - row;
+            if (remaining <= CHUNK_ROWS) {
+                return null;
+            }
+            // Split at a chunk boundary near the middle so each half walks whole chunks
+            long middle = ((row + remaining / 2) >>> CHUNK_SHIFT) << CHUNK_SHIFT;
+            if (middle <= row) {
+                middle = row + remaining / 2;
+            }
+            PriceSpliterator prefix = new PriceSpliterator(row, middle);
+            row = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - row;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+import java.time.LocalDate;
+import java.time.temporal.ChronoField;
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Car storage partitioned into segments by manufacture year and month.
+ * Every segment is a {@link CarTable} with a zone map (minimum and maximum manufacture date and price), so range
+ * queries skip whole segments that cannot match and check individual rows only in partially matching segments.
+ * All segments share the same dictionaries.
+ * Building the segments copies every car, which costs more than one scan of a {@link CarTable}, so the partitions
+ * pay off for tables that are queried repeatedly; a single query is cheaper as a plain filter over the table.
+ */
+public class PartitionedCarTable {
+    private static final int SEGMENT_CAPACITY = 256;
+
+    private final CarDictionary brands = new CarDictionary();
+    private final CarDictionary models = new CarDictionary();
+    private final CarDictionary classes = new CarDictionary();
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private int size;
+
+    /**
+     * Creates a partitioned copy of a car table.
+     *
+     * @param cars The cars to partition.
+     * @return a new partitioned table.
+     */
+    public static PartitionedCarTable of(CarTable cars) {
+        PartitionedCarTable table = new PartitionedCarTable();
+        for (int row = 0; row < cars.size(); row++) {
+            table.add(cars.getBrand(row), cars.getModel(row), cars.getEpochDay(row),
+                    cars.getCarClass(row), cars.getPrice(row));
+        }
+        return table;
+    }
+
+    /**
+     * Appends a car to the segment of its manufacture month.
+     *
+     * @param car The car to append.
+     */
+    public void add(Car car) {
+        add(car.getBrand(), car.getModel(), (int) car.getManufactureDate().toEpochDay(), car.getCarClass(), car.getPrice());
+    }
+
+    /**
+     * Appends a car given by its attribute values to the segment of its manufacture month.
+     */
+    private void add(String brand, String model, int epochDay, String carClass, double price) {
+        Segment segment = segments.computeIfAbsent(prolepticMonth(epochDay), key -> new Segment(
+                new CarTable(brands, models, classes, SEGMENT_CAPACITY)));
+        segment.add(brands.encode(brand), models.encode(model), classes.encode(carClass), epochDay, price);
+        size++;
+    }
+
+    /**
+     * Streams the cars manufactured within the window.
+     * Only segments of the months overlapping the window are visited; segments lying entirely inside
+     * the window are returned without checking their rows.
+     *
+     * @param window The window of manufacture dates.
+     * @return a stream of matching cars.
+     */
+    public Stream<Car> manufacturedWithin(ManufactureWindow window) {
+        if (window.isEmpty() || segments.isEmpty()) {
+            return Stream.empty();
+        }
+        long fromMonth = prolepticMonth(Math.max(window.getFromEpochDay(), LocalDate.MIN.toEpochDay()));
+        long toMonth = prolepticMonth(Math.min(window.getToEpochDay(), LocalDate.MAX.toEpochDay()));
+        return select(segments.subMap(fromMonth, true, toMonth, true).values(),
+                segment -> window.contains(segment.minEpochDay) && window.contains(segment.maxEpochDay),
+                segment -> window.getFromEpochDay() > segment.maxEpochDay || window.getToEpochDay() < segment.minEpochDay,
+                (table, row) -> window.contains(table.getEpochDay(row)));
+    }
+
+    /**
+     * Streams the cars whose price lies within the inclusive range, skipping segments by their price zone maps.
+     *
+     * @param minPrice The lowest matching price.
+     * @param maxPrice The highest matching price.
+     * @return a stream of matching cars.
+     */
+    public Stream<Car> pricedBetween(double minPrice, double maxPrice) {
+        return select(segments.values(),
+                segment -> minPrice <= segment.minPrice && segment.maxPrice <= maxPrice,
+                segment -> segment.maxPrice < minPrice || segment.minPrice > maxPrice,
+                (table, row) -> minPrice <= table.getPrice(row) && table.getPrice(row) <= maxPrice);
+    }
+
+    /**
+     * Gets the number of cars in all segments.
+     *
+     * @return the number of cars.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of month segments.
+     *
+     * @return the number of segments.
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Streams the matching rows of the candidate segments using their zone maps.
+     */
+    private static Stream<Car> select(Collection<Segment> candidates, SegmentPredicate fullyMatches,
+                                      SegmentPredicate cannotMatch, RowPredicate rowMatches) {
+        return candidates.stream()
+                .filter(segment -> !cannotMatch.test(segment))
+                .flatMap(segment -> {
+                    CarTable table = segment.table;
+                    if (fullyMatches.test(segment)) {
+                        return table.stream();
+                    }
+                    return IntStream.range(0, table.size())
+                            .filter(row -> rowMatches.test(table, row))
+                            .mapToObj(table::getCar);
+                });
+    }
+
+    /**
+     * Converts an epoch day to the number of months since year zero.
+     */
+    private static long prolepticMonth(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).getLong(ChronoField.PROLEPTIC_MONTH);
+    }
+
+    /**
+     * Predicate over whole segments, evaluated against their zone maps.
+     */
+    @FunctionalInterface
+    private interface SegmentPredicate {
+        boolean test(Segment segment);
+    }
+
+    /**
+     * Predicate over a single row of a segment table.
+     */
+    @FunctionalInterface
+    private interface RowPredicate {
+        boolean test(CarTable table, int row);
+    }
+
+    /**
+     * Rows of one manufacture month together with their zone map.
+     */
+    private static class Segment {
+        private final CarTable table;
+        private int minEpochDay = Integer.MAX_VALUE;
+        private int maxEpochDay = Integer.MIN_VALUE;
+        private double minPrice = Double.POSITIVE_INFINITY;
+        private double maxPrice = Double.NEGATIVE_INFINITY;
+
+        private Segment(CarTable table) {
+            this.table = table;
+        }
+
+        private void add(int brandCode, int modelCode, int classCode, int epochDay, double price) {
+            table.addEncoded(brandCode, modelCode, classCode, epochDay, price);
+            minEpochDay = Math.min(minEpochDay, epochDay);
+            maxEpochDay = Math.max(maxEpochDay, epochDay);
+            minPrice = Math.min(minPrice, price);
+            maxPrice = Math.max(maxPrice, price);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Instrumentation of the car pipeline stages.
+ * Every stage run is wrapped in a {@link StageTimer}, which emits a {@link PipelineStageEvent} to JDK Flight Recorder
+ * when a recording has the event enabled, and accumulates {@link StageMetrics} in a registry exposed over JMX when the
+ * {@code lab1.metrics} system property is {@code true}. Both record the element count, the wall-clock time and the
+ * bytes allocated by the running thread (from the {@code com.sun.management} thread MXBean; allocations of other
+ * threads, e.g. parallel stream workers, are not included).
+ * With neither enabled, starting a stage returns a shared no-op timer, so instrumented code runs at full speed.
+ */
+public final class PipelineMetrics {
+    private static final boolean ENABLED = Boolean.getBoolean("lab1.metrics");
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = allocationCounter();
+    private static final Map<String, StageMetrics> STAGES = new LinkedHashMap<>();
+    private static final StageTimer DISABLED = new StageTimer(null, null, 0, 0);
+
+    private PipelineMetrics() {
+    }
+
+    /**
+     * Checks whether stage metrics are accumulated in the registry.
+     *
+     * @return {@code true} if the {@code lab1.metrics} system property is {@code true}.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Starts timing a run of a stage. The returned timer must be closed on the same thread.
+     *
+     * @param stage Name of the stage.
+     * @return the running timer.
+     */
+    public static StageTimer start(String stage) {
+        PipelineStageEvent event = new PipelineStageEvent();
+        boolean recording = event.isEnabled();
+        if (!ENABLED && !recording) {
+            return DISABLED;
+        }
+        event.begin();
+        return new StageTimer(stage, recording ? event : null, System.nanoTime(), allocatedBytes());
+    }
+
+    /**
+     * Gets the metrics of all stages that have run, in the order they first ran.
+     *
+     * @return the stage metrics.
+     */
+    public static List<StageMetrics> getStages() {
+        synchronized (STAGES) {
+            return new ArrayList<>(STAGES.values());
+        }
+    }
+
+    /**
+     * Gets the metrics of a stage, creating and registering them with the platform MBean server on first use.
+     */
+    private static StageMetrics metrics(String stage) {
+        synchronized (STAGES) {
+            StageMetrics metrics = STAGES.get(stage);
+            if (metrics == null) {
+                metrics = new StageMetrics(stage);
+                try {
+                    ObjectName name = new ObjectName("lab1:type=PipelineStage,name=" + ObjectName.quote(stage));
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+                } catch (JMException e) {
+                    throw new IllegalStateException("Cannot register metrics of stage " + stage, e);
+                }
+                STAGES.put(stage, metrics);
+            }
+            return metrics;
+        }
+    }
+
+    /**
+     * Gets the bytes allocated so far by the current thread.
+     */
+    private static long allocatedBytes() {
+        if (ALLOCATION_COUNTER == null) {
+            return 0;
+        }
+        return Math.max(ALLOCATION_COUNTER.getCurrentThreadAllocatedBytes(), 0);
+    }
+
+    /**
+     * Gets the thread MXBean if it can measure per-thread allocation.
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean counter && counter.isThreadAllocatedMemorySupported()) {
+            if (!counter.isThreadAllocatedMemoryEnabled()) {
+                counter.setThreadAllocatedMemoryEnabled(true);
+            }
+            return counter;
+        }
+        return null;
+    }
+
+    /**
+     * Timer of one run of a stage, started by {@link PipelineMetrics#start(String)}.
+     * Closing it records the run.
+     */
+    public static final class StageTimer implements AutoCloseable {
+        private final String stage;
+        private final PipelineStageEvent event;
+        private final long startNanos;
+        private final long startAllocated;
+        private long elements;
+
+        /**
+         * Constructs a timer started at the given time and allocation counter.
+         */
+        private StageTimer(String stage, PipelineStageEvent event, long startNanos, long startAllocated) {
+            this.stage = stage;
+            this.event = event;
+            this.startNanos = startNanos;
+            this.startAllocated = startAllocated;
+        }
+
+        /**
+         * Sets the number of elements the stage produced.
+         *
+         * @param count The number of elements.
+         * @return this timer.
+         */
+        public StageTimer setElements(long count) {
+            this.elements = count;
+            return this;
+        }
+
+        /**
+         * Stops the timer and records the run.
+         */
+        @Override
+        public void close() {
+            if (stage == null) {
+                return;
+            }
+            long nanos = System.nanoTime() - startNanos;
+            long allocated = allocatedBytes() - startAllocated;
+            if (event != null) {
+                event.stage = stage;
+                event.elements = elements;
+                event.allocatedBytes = allocated;
+                event.commit();
+            }
+            if (ENABLED) {
+                metrics(stage).record(nanos, elements, allocated);
+            }
+        }
+    }
+}
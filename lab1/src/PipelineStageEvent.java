@@ -0,0 +1,31 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of one run of a car pipeline stage, recorded by {@link PipelineMetrics}.
+ * The event duration is the wall-clock time of the stage. It is enabled in the default JFR profiles, so a recording
+ * started with {@code -XX:StartFlightRecording} captures every stage without further configuration.
+ */
+@Name("lab1.PipelineStage")
+@Label("Car Pipeline Stage")
+@Category("Car Analysis")
+@Description("Run of one stage of the car analysis pipeline")
+@StackTrace(false)
+class PipelineStageEvent extends Event {
+    @Label("Stage")
+    String stage;
+
+    @Label("Elements")
+    @Description("Number of elements the stage produced")
+    long elements;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the thread that ran the stage")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded binary heap that keeps the {@code capacity} elements with the lowest or highest prices.
+ * Prices live in a primitive array beside the elements (both grow with the heap up to the capacity), and the heap is
+ * ordered so that its root is the worst kept element: a new element only has to beat the root to get in, which costs
+ * O(log capacity) and nothing at all for the majority of elements that do not.
+ * Of elements with equal prices, the ones offered first are kept.
+ *
+ * @param <T> Type of the elements.
+ */
+class PriceHeap<T> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int capacity;
+    private final boolean lowest;
+    private double[] keys;
+    private Object[] elements;
+    private int size;
+
+    /**
+     * Constructs an empty heap.
+     *
+     * @param capacity Maximum number of kept elements.
+     * @param lowest   Whether to keep the lowest prices rather than the highest.
+     */
+    PriceHeap(int capacity, boolean lowest) {
+        this.capacity = capacity;
+        this.lowest = lowest;
+        int initialCapacity = Math.min(capacity, INITIAL_CAPACITY);
+        this.keys = new double[initialCapacity];
+        this.elements = new Object[initialCapacity];
+    }
+
+    /**
+     * Offers an element to the heap.
+     *
+     * @param price   The price of the element.
+     * @param element The element.
+     * @return {@code true} if the element was kept.
+     */
+    boolean offer(double price, T element) {
+        // Keys are negated for the highest prices so the root is always the largest key
+        double key = lowest ? price : -price;
+        if (size < capacity) {
+            if (size == keys.length) {
+                grow();
+            }
+            keys[size] = key;
+            elements[size] = element;
+            siftUp(size++);
+            return true;
+        }
+        if (!(key < keys[0])) {
+            return false;
+        }
+        keys[0] = key;
+        elements[0] = element;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Offers all elements of another heap with the same bounds.
+     *
+     * @param other The heap to merge.
+     * @return this heap.
+     */
+    @SuppressWarnings("unchecked")
+    PriceHeap<T> merge(PriceHeap<T> other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.lowest ? other.keys[i] : -other.keys[i], (T) other.elements[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Gets the number of kept elements.
+     *
+     * @return the number of elements.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Lists the kept elements from the best price to the worst.
+     *
+     * @return a new list of the elements.
+     */
+    @SuppressWarnings("unchecked")
+    List<T> toSortedList() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(keys[a], keys[b]));
+        List<T> sorted = new ArrayList<>(size);
+        for (int index : order) {
+            sorted.add((T) elements[index]);
+        }
+        return sorted;
+    }
+
+    /**
+     * Doubles the arrays, up to the capacity of the heap.
+     */
+    private void grow() {
+        int length = (int) Math.min(capacity, keys.length * 2L);
+        keys = Arrays.copyOf(keys, length);
+        elements = Arrays.copyOf(elements, length);
+    }
+
+    /**
+     * Moves an entry up until its parent key is not smaller.
+     */
+    private void siftUp(int index) {
+        double key = keys[index];
+        Object element = elements[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!(keys[parent] < key)) {
+                break;
+            }
+            keys[index] = keys[parent];
+            elements[index] = elements[parent];
+            index = parent;
+        }
+        keys[index] = key;
+        elements[index] = element;
+    }
+
+    /**
+     * Moves an entry down until no child key is larger.
+     */
+    private void siftDown(int index) {
+        double key = keys[index];
+        Object element = elements[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && keys[child + 1] > keys[child]) {
+                child++;
+            }
+            if (!(keys[child] > key)) {
+                break;
+            }
+            keys[index] = keys[child];
+            elements[index] = elements[child];
+            index = child;
+        }
+        keys[index] = key;
+        elements[index] = element;
+    }
+}
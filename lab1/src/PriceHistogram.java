@@ -0,0 +1,378 @@
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Log-linear histogram of car prices in the style of HdrHistogram.
+ * Every power-of-two range of prices is split into {@code 2^precisionBits} equal buckets, so the width of a bucket is
+ * at most {@code 2^-precisionBits} of its prices (0.8% with the default 7 bits). The bucket of a price is read
+ * straight from the exponent and top mantissa bits of its IEEE 754 representation, which makes recording a shift,
+ * a subtraction and an increment with no allocation.
+ * Histograms with the same configuration are merged by adding their counts, and {@link #encode()} stores only
+ * the non-empty buckets, so shards can be shipped and combined later. The count, sum, minimum and maximum are exact;
+ * percentiles and rank counts are accurate to the bucket width.
+ * Prices below the lowest or above the highest trackable price are counted in the first or last bucket.
+ */
+public class PriceHistogram implements DoubleConsumer {
+    /**
+     * Default lowest trackable price.
+     */
+    public static final double DEFAULT_LOWEST_PRICE = 1;
+
+    /**
+     * Default highest trackable price.
+     */
+    public static final double DEFAULT_HIGHEST_PRICE = 1e12;
+
+    /**
+     * Default number of mantissa bits that select the bucket within a power of two.
+     */
+    public static final int DEFAULT_PRECISION_BITS = 7;
+
+    private static final int MANTISSA_BITS = 52;
+    private static final int EXPONENT_BIAS = 1023;
+    private static final byte ENCODING_VERSION = 1;
+
+    private final int precisionBits;
+    private final int lowestExponent;
+    private final int highestExponent;
+    private final int shift;
+    private final long baseIndex;
+    private final long[] counts;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Constructs a histogram with the default range and precision.
+     */
+    public PriceHistogram() {
+        this(DEFAULT_LOWEST_PRICE, DEFAULT_HIGHEST_PRICE, DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * Constructs a histogram tracking the given price range.
+     *
+     * @param lowestPrice   Lowest price told apart from smaller ones, e.g. 1 UAH.
+     * @param highestPrice  Highest price told apart from larger ones.
+     * @param precisionBits Number of buckets per power of two as a power of two, from 1 to 16.
+     */
+    public PriceHistogram(double lowestPrice, double highestPrice, int precisionBits) {
+        this(exponent(lowestPrice, "Lowest"), exponent(highestPrice, "Highest"), precisionBits);
+    }
+
+    /**
+     * Constructs a histogram over the given binary exponent range.
+     */
+    private PriceHistogram(int lowestExponent, int highestExponent, int precisionBits) {
+        if (precisionBits < 1 || precisionBits > 16) {
+            throw new IllegalArgumentException("Precision bits must be between 1 and 16, got " + precisionBits);
+        }
+        if (highestExponent < lowestExponent) {
+            throw new IllegalArgumentException("Highest price must not be below the lowest price");
+        }
+        this.precisionBits = precisionBits;
+        this.lowestExponent = lowestExponent;
+        this.highestExponent = highestExponent;
+        this.shift = MANTISSA_BITS - precisionBits;
+        this.baseIndex = (long) (lowestExponent + EXPONENT_BIAS) << precisionBits;
+        this.counts = new long[(highestExponent - lowestExponent + 1) << precisionBits];
+    }
+
+    /**
+     * Records a price.
+     *
+     * @param price The price to record.
+     */
+    @Override
+    public void accept(double price) {
+        recordValue(price, 1);
+    }
+
+    /**
+     * Records a price several times.
+     *
+     * @param price       The price to record.
+     * @param occurrences The number of times to record it.
+     */
+    public void recordValue(double price, long occurrences) {
+        if (Double.isNaN(price)) {
+            throw new IllegalArgumentException("Cannot record NaN");
+        }
+        counts[bucket(price)] += occurrences;
+        count += occurrences;
+        sum += price * occurrences;
+        if (price < min) {
+            min = price;
+        }
+        if (price > max) {
+            max = price;
+        }
+    }
+
+    /**
+     * Merges another histogram with the same configuration into this one.
+     *
+     * @param other The histogram to merge.
+     * @return this histogram.
+     */
+    public PriceHistogram merge(PriceHistogram other) {
+        if (other.precisionBits != precisionBits || other.lowestExponent != lowestExponent
+                || other.highestExponent != highestExponent) {
+            throw new IllegalArgumentException("Cannot merge histograms with different ranges or precision");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Estimates a percentile the same way an exact percentile is read from a sorted list:
+     * the smallest price whose rank reaches {@code ceil(percentile / 100 * count)}.
+     * The result is the middle of the bucket holding that price, limited to the recorded minimum and maximum.
+     *
+     * @param percentile The desired percentile (e.g., 25 for Q1).
+     * @return the estimated percentile value.
+     */
+    public double percentile(double percentile) {
+        if (count == 0) {
+            throw new IllegalStateException("Histogram is empty");
+        }
+        long target = Math.min(count, Math.max(1, (long) Math.ceil(percentile / 100.0 * count)));
+        long cumulative = counts[0];
+        int bucket = 0;
+        while (cumulative < target && bucket < counts.length - 1) {
+            cumulative += counts[++bucket];
+        }
+        double middle = (lowerBound(bucket) + lowerBound(bucket + 1)) / 2;
+        return Math.min(Math.max(middle, min), max);
+    }
+
+    /**
+     * Estimates the number of prices strictly below the given value,
+     * assuming prices are spread evenly within the bucket of the value.
+     *
+     * @param value The value to compare with.
+     * @return the estimated number of smaller prices.
+     */
+    public long countBelow(double value) {
+        if (count == 0 || value <= min) {
+            return 0;
+        }
+        if (value > max) {
+            return count;
+        }
+        int bucket = bucket(value);
+        long below = 0;
+        for (int i = 0; i < bucket; i++) {
+            below += counts[i];
+        }
+        double low = lowerBound(bucket);
+        double fraction = Math.min(Math.max((value - low) / (lowerBound(bucket + 1) - low), 0), 1);
+        return below + Math.round(counts[bucket] * fraction);
+    }
+
+    /**
+     * Estimates the number of prices strictly above the given value,
+     * assuming prices are spread evenly within the bucket of the value.
+     *
+     * @param value The value to compare with.
+     * @return the estimated number of larger prices.
+     */
+    public long countAbove(double value) {
+        if (count == 0 || value >= max) {
+            return 0;
+        }
+        if (value < min) {
+            return count;
+        }
+        int bucket = bucket(value);
+        long above = 0;
+        for (int i = bucket + 1; i < counts.length; i++) {
+            above += counts[i];
+        }
+        double low = lowerBound(bucket);
+        double fraction = Math.min(Math.max((lowerBound(bucket + 1) - value) / (lowerBound(bucket + 1) - low), 0), 1);
+        return above + Math.round(counts[bucket] * fraction);
+    }
+
+    /**
+     * Gets the number of recorded prices.
+     *
+     * @return the number of prices.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the smallest recorded price.
+     *
+     * @return the minimum price, or positive infinity if nothing was recorded.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Gets the largest recorded price.
+     *
+     * @return the maximum price, or negative infinity if nothing was recorded.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the mean of the recorded prices.
+     *
+     * @return the mean price, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Gets the number of mantissa bits that select the bucket within a power of two.
+     *
+     * @return the precision in bits.
+     */
+    public int getPrecisionBits() {
+        return precisionBits;
+    }
+
+    /**
+     * Gets the number of buckets of the histogram.
+     *
+     * @return the number of buckets.
+     */
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    /**
+     * Encodes the histogram compactly: the configuration and exact summary values, followed by the non-empty
+     * buckets as variable-length gaps between their indexes and variable-length counts.
+     *
+     * @return the encoded histogram.
+     */
+    public byte[] encode() {
+        int nonEmpty = 0;
+        for (long bucketCount : counts) {
+            if (bucketCount != 0) {
+                nonEmpty++;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(48 + nonEmpty * 15);
+        buffer.put(ENCODING_VERSION).put((byte) precisionBits)
+                .putShort((short) lowestExponent).putShort((short) highestExponent)
+                .putLong(count).putDouble(sum).putDouble(min).putDouble(max)
+                .putInt(nonEmpty);
+        int previous = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                putVarLong(buffer, i - previous);
+                putVarLong(buffer, counts[i]);
+                previous = i;
+            }
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Decodes a histogram written by {@link #encode()}.
+     *
+     * @param bytes The encoded histogram.
+     * @return the decoded histogram.
+     * @throws IllegalArgumentException if the bytes are not a valid encoded histogram.
+     */
+    public static PriceHistogram decode(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            byte version = buffer.get();
+            if (version != ENCODING_VERSION) {
+                throw new IllegalArgumentException("Unsupported histogram encoding version " + version);
+            }
+            int precisionBits = buffer.get();
+            int lowestExponent = buffer.getShort();
+            int highestExponent = buffer.getShort();
+            PriceHistogram histogram = new PriceHistogram(lowestExponent, highestExponent, precisionBits);
+            histogram.count = buffer.getLong();
+            histogram.sum = buffer.getDouble();
+            histogram.min = buffer.getDouble();
+            histogram.max = buffer.getDouble();
+            int nonEmpty = buffer.getInt();
+            int index = -1;
+            for (int i = 0; i < nonEmpty; i++) {
+                index += (int) getVarLong(buffer);
+                histogram.counts[index] = getVarLong(buffer);
+            }
+            return histogram;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated or corrupt histogram encoding", e);
+        }
+    }
+
+    /**
+     * Finds the bucket of a price, clamped to the tracked range.
+     */
+    private int bucket(double price) {
+        if (!(price > 0)) {
+            return 0;
+        }
+        long index = (Double.doubleToRawLongBits(price) >>> shift) - baseIndex;
+        return (int) Math.min(Math.max(index, 0), counts.length - 1);
+    }
+
+    /**
+     * Gets the smallest price of a bucket; the bucket after the last one gives the end of the tracked range.
+     */
+    private double lowerBound(int bucket) {
+        return Double.longBitsToDouble((bucket + baseIndex) << shift);
+    }
+
+    /**
+     * Gets the binary exponent of a positive, finite price.
+     */
+    private static int exponent(double price, String name) {
+        if (!(price > 0) || Double.isInfinite(price)) {
+            throw new IllegalArgumentException(name + " price must be positive and finite, got " + price);
+        }
+        return Math.max(Math.getExponent(price), Double.MIN_EXPONENT);
+    }
+
+    /**
+     * Writes an unsigned variable-length integer, 7 bits per byte.
+     */
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned variable-length integer written by {@link #putVarLong(ByteBuffer, long)}.
+     */
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int bits = 0; ; bits += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << bits;
+            if (b >= 0) {
+                return value;
+            }
+            if (bits > 56) {
+                throw new IllegalArgumentException("Variable-length integer is too long");
+            }
+        }
+    }
+}
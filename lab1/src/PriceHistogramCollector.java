@@ -0,0 +1,62 @@
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * A custom collector that records car prices into a {@link PriceHistogram}.
+ * Used as the downstream of {@code groupingBy}, it builds a percentile histogram per class or brand in one pass.
+ */
+public class PriceHistogramCollector implements Collector<Car, PriceHistogram, PriceHistogram> {
+    private final double lowestPrice;
+    private final double highestPrice;
+    private final int precisionBits;
+
+    /**
+     * Constructs a collector of histograms with the default range and precision.
+     */
+    public PriceHistogramCollector() {
+        this(PriceHistogram.DEFAULT_LOWEST_PRICE, PriceHistogram.DEFAULT_HIGHEST_PRICE,
+                PriceHistogram.DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * Constructs a collector of histograms with the given range and precision.
+     *
+     * @param lowestPrice   Lowest price told apart from smaller ones.
+     * @param highestPrice  Highest price told apart from larger ones.
+     * @param precisionBits Number of buckets per power of two as a power of two.
+     */
+    public PriceHistogramCollector(double lowestPrice, double highestPrice, int precisionBits) {
+        this.lowestPrice = lowestPrice;
+        this.highestPrice = highestPrice;
+        this.precisionBits = precisionBits;
+    }
+
+    @Override
+    public Supplier<PriceHistogram> supplier() {
+        return () -> new PriceHistogram(lowestPrice, highestPrice, precisionBits);
+    }
+
+    @Override
+    public BiConsumer<PriceHistogram, Car> accumulator() {
+        return (histogram, car) -> histogram.accept(car.getPrice());
+    }
+
+    @Override
+    public BinaryOperator<PriceHistogram> combiner() {
+        return PriceHistogram::merge;
+    }
+
+    @Override
+    public Function<PriceHistogram, PriceHistogram> finisher() {
+        return Function.identity();
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Set.of(Characteristics.IDENTITY_FINISH, Characteristics.UNORDERED);
+    }
+}
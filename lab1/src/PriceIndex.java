@@ -0,0 +1,236 @@
+import java.util.Arrays;
+
+/**
+ * Sorted index of the prices of a {@link CarTable} with the row of every price.
+ * The index is built once with a least-significant-digit radix sort of the order-preserving bit patterns of the
+ * prices (O(n), stable, so equal prices keep their row order); after that, price bands, ranks, percentiles and the
+ * IQR outlier analysis are binary searches or direct reads of the sorted array in O(log n), and the statistics of a
+ * price band are computed over a contiguous slice. Cars appended to the table are added by {@link #refresh()}, which
+ * sorts only the new prices and merges them into the index in a single linear pass.
+ * Prices changed in place are not tracked; build a new index after such changes.
+ */
+public class PriceIndex {
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    private final CarTable cars;
+    private double[] prices = new double[0];
+    private int[] rows = new int[0];
+
+    /**
+     * Builds the index over all cars of a table.
+     *
+     * @param cars The table to index; cars may be appended to it and added with {@link #refresh()}.
+     */
+    public PriceIndex(CarTable cars) {
+        this.cars = cars;
+        refresh();
+    }
+
+    /**
+     * Adds the cars appended to the table since the index was built or last refreshed.
+     */
+    public void refresh() {
+        int indexed = prices.length;
+        int size = cars.size();
+        if (size < indexed) {
+            throw new IllegalStateException("Table shrank from " + indexed + " to " + size + " rows");
+        }
+        if (size == indexed) {
+            return;
+        }
+        int added = size - indexed;
+        long[] keys = new long[added];
+        int[] addedRows = new int[added];
+        double[] column = cars.getPriceColumn();
+        for (int i = 0; i < added; i++) {
+            keys[i] = PriceQuantiles.sortableBits(column[indexed + i]);
+            addedRows[i] = indexed + i;
+        }
+        sort(keys, addedRows);
+
+        double[] mergedPrices = new double[size];
+        int[] mergedRows = new int[size];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < size; k++) {
+            // Existing entries win ties, so equal prices stay in row order
+            if (j == added
+                    || (i < indexed && Long.compareUnsigned(PriceQuantiles.sortableBits(prices[i]), keys[j]) <= 0)) {
+                mergedPrices[k] = prices[i];
+                mergedRows[k] = rows[i++];
+            } else {
+                mergedPrices[k] = PriceQuantiles.priceOfBits(keys[j]);
+                mergedRows[k] = addedRows[j++];
+            }
+        }
+        prices = mergedPrices;
+        rows = mergedRows;
+    }
+
+    /**
+     * Gets the number of indexed cars.
+     *
+     * @return the number of cars.
+     */
+    public int size() {
+        return prices.length;
+    }
+
+    /**
+     * Gets the rank of a price: the number of indexed prices strictly below it.
+     *
+     * @param price The price to rank.
+     * @return the number of cheaper cars.
+     */
+    public int rank(double price) {
+        return firstNotBelow(price);
+    }
+
+    /**
+     * Counts the cars priced within a band.
+     *
+     * @param low  The lowest price of the band (inclusive).
+     * @param high The highest price of the band (inclusive).
+     * @return the number of cars in the band.
+     */
+    public int countBetween(double low, double high) {
+        return Math.max(firstAbove(high) - firstNotBelow(low), 0);
+    }
+
+    /**
+     * Gets the rows of the cars priced within a band, from the cheapest to the most expensive.
+     *
+     * @param low  The lowest price of the band (inclusive).
+     * @param high The highest price of the band (inclusive).
+     * @return a new array of table rows.
+     */
+    public int[] rowsBetween(double low, double high) {
+        int from = firstNotBelow(low);
+        return Arrays.copyOfRange(rows, from, Math.max(firstAbove(high), from));
+    }
+
+    /**
+     * Gets the rows of the cars priced within a band as a bitmap, to combine with a {@link CarBitmapIndex}.
+     *
+     * @param low  The lowest price of the band (inclusive).
+     * @param high The highest price of the band (inclusive).
+     * @return a new bitmap of table rows.
+     */
+    public RowBitmap bitmapBetween(double low, double high) {
+        int[] band = rowsBetween(low, high);
+        Arrays.sort(band);
+        return RowBitmap.of(band);
+    }
+
+    /**
+     * Computes the price statistics of the cars priced within a band over the contiguous sorted slice.
+     *
+     * @param low  The lowest price of the band (inclusive).
+     * @param high The highest price of the band (inclusive).
+     * @return the statistics of the cars in the band.
+     */
+    public CarStatistics statisticsBetween(double low, double high) {
+        int from = firstNotBelow(low);
+        return PriceKernels.moments(prices, from, Math.max(firstAbove(high), from)).toStatistics();
+    }
+
+    /**
+     * Reads a percentile the same way as {@link PriceQuantiles#percentile(double[], int, int, double)}.
+     *
+     * @param percentile The desired percentile (e.g., 25 for Q1).
+     * @return the percentile value.
+     */
+    public double percentile(double percentile) {
+        return prices[PriceQuantiles.percentileIndex(0, prices.length, percentile)];
+    }
+
+    /**
+     * Performs exact analysis of data points and outliers with two reads and two binary searches.
+     * The result is identical to {@link CarAnalysis#analyze()} on the same prices.
+     *
+     * @return the IQR analysis of the indexed prices.
+     */
+    public IqrResult analyze() {
+        double q1 = percentile(25);
+        double q3 = percentile(75);
+        long outliers = firstNotBelow(IqrResult.lowerBound(q1, q3))
+                + (prices.length - firstAbove(IqrResult.upperBound(q1, q3)));
+        return new IqrResult(q1, q3, prices.length - outliers, outliers);
+    }
+
+    /**
+     * Gets the price at a position of the sorted index.
+     *
+     * @param position Position from 0 (cheapest) to {@code size() - 1}.
+     * @return the price.
+     */
+    public double getPrice(int position) {
+        return prices[position];
+    }
+
+    /**
+     * Gets the table row of the car at a position of the sorted index.
+     *
+     * @param position Position from 0 (cheapest) to {@code size() - 1}.
+     * @return the table row.
+     */
+    public int getRow(int position) {
+        return rows[position];
+    }
+
+    /**
+     * Finds the first position whose price is not below the bound.
+     */
+    private int firstNotBelow(double bound) {
+        return PriceQuantiles.firstNotBelow(prices, 0, prices.length, bound);
+    }
+
+    /**
+     * Finds the first position whose price is above the bound.
+     */
+    private int firstAbove(double bound) {
+        return PriceQuantiles.firstAbove(prices, 0, prices.length, bound);
+    }
+
+    /**
+     * Sorts keys with their rows by an unsigned least-significant-digit radix sort, skipping digits all keys share.
+     */
+    private static void sort(long[] keys, int[] rows) {
+        int n = keys.length;
+        long[] sourceKeys = keys;
+        int[] sourceRows = rows;
+        long[] targetKeys = new long[n];
+        int[] targetRows = new int[n];
+        int[] counts = new int[RADIX];
+        for (int shift = 0; shift < Long.SIZE && n > 0; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (long key : sourceKeys) {
+                counts[(int) (key >>> shift) & (RADIX - 1)]++;
+            }
+            if (counts[(int) (sourceKeys[0] >>> shift) & (RADIX - 1)] == n) {
+                continue;
+            }
+            for (int digit = 0, offset = 0; digit < RADIX; digit++) {
+                int count = counts[digit];
+                counts[digit] = offset;
+                offset += count;
+            }
+            for (int i = 0; i < n; i++) {
+                int position = counts[(int) (sourceKeys[i] >>> shift) & (RADIX - 1)]++;
+                targetKeys[position] = sourceKeys[i];
+                targetRows[position] = sourceRows[i];
+            }
+            long[] swapKeys = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = swapKeys;
+            int[] swapRows = sourceRows;
+            sourceRows = targetRows;
+            targetRows = swapRows;
+        }
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, 0, keys, 0, n);
+            System.arraycopy(sourceRows, 0, rows, 0, n);
+        }
+    }
+}
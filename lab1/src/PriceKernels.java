@@ -0,0 +1,90 @@
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Aggregation kernels over primitive price columns: price moments (count, minimum, maximum, mean and M2) in one
+ * fused pass and counting prices outside of outlier bounds.
+ * When the {@code jdk.incubator.vector} module is resolved (e.g. with {@code --add-modules jdk.incubator.vector}),
+ * the kernels run on the Vector API with the widest species the CPU supports; otherwise they fall back to scalar loops.
+ * Segment variants read little-endian {@code double} columns of native or mapped segments, such as the price column
+ * of a {@link MappedCarDataset}.
+ */
+public final class PriceKernels {
+    private static final ScalarPriceKernels KERNELS = load();
+
+    private PriceKernels() {
+    }
+
+    /**
+     * Counts the prices of the range lying strictly below the lower bound or strictly above the upper bound.
+     *
+     * @param prices     The prices.
+     * @param from       Index of the first price (inclusive).
+     * @param to         Index of the last price (exclusive).
+     * @param lowerBound The lower bound.
+     * @param upperBound The upper bound.
+     * @return the number of prices outside of the bounds.
+     */
+    public static long countOutside(double[] prices, int from, int to, double lowerBound, double upperBound) {
+        return KERNELS.countOutside(prices, from, to, lowerBound, upperBound);
+    }
+
+    /**
+     * Computes the price moments of the range in a single fused pass that reads every price once.
+     *
+     * @param prices The prices.
+     * @param from   Index of the first price (inclusive).
+     * @param to     Index of the last price (exclusive).
+     * @return the moments of the prices.
+     */
+    public static PriceMoments moments(double[] prices, int from, int to) {
+        return KERNELS.moments(prices, from, to);
+    }
+
+    /**
+     * Computes the price moments of a little-endian {@code double} column in a single fused pass.
+     *
+     * @param prices The segment holding the prices.
+     * @param count  The number of prices in the segment.
+     * @return the moments of the prices.
+     */
+    public static PriceMoments moments(MemorySegment prices, long count) {
+        return KERNELS.moments(prices, count);
+    }
+
+    /**
+     * Counts the prices of a little-endian {@code double} column lying outside of the bounds.
+     *
+     * @param prices     The segment holding the prices.
+     * @param count      The number of prices in the segment.
+     * @param lowerBound The lower bound.
+     * @param upperBound The upper bound.
+     * @return the number of prices outside of the bounds.
+     */
+    public static long countOutside(MemorySegment prices, long count, double lowerBound, double upperBound) {
+        return KERNELS.countOutside(prices, count, lowerBound, upperBound);
+    }
+
+    /**
+     * Gets a short description of the kernel implementation in use.
+     *
+     * @return "scalar", or "vector" followed by the chosen species.
+     */
+    public static String implementation() {
+        return KERNELS.describe();
+    }
+
+    /**
+     * Loads the vector kernels if the incubator module is available, and the scalar kernels otherwise.
+     * The vector class is loaded reflectively so that nothing links against the module when it is absent.
+     */
+    private static ScalarPriceKernels load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (ScalarPriceKernels) Class.forName("VectorPriceKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScalarPriceKernels();
+            }
+        }
+        return new ScalarPriceKernels();
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.function.DoubleConsumer;
+
+/**
+ * Streaming accumulator of price moments: count, minimum, maximum, mean and the sum of squared deviations (M2).
+ * Values are added with Welford's update and partial accumulators are merged with Chan's parallel formula,
+ * so the state stays constant in size no matter how many prices are accumulated.
+ */
+public class PriceMoments implements DoubleConsumer {
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double mean;
+    private double m2;
+
+    /**
+     * Creates an accumulator from already computed moments.
+     *
+     * @param count The number of prices.
+     * @param min   The minimum price.
+     * @param max   The maximum price.
+     * @param mean  The mean price.
+     * @param m2    The sum of squared deviations from the mean.
+     * @return a new accumulator holding the moments.
+     */
+    public static PriceMoments of(long count, double min, double max, double mean, double m2) {
+        PriceMoments moments = new PriceMoments();
+        if (count > 0) {
+            moments.count = count;
+            moments.min = min;
+            moments.max = max;
+            moments.mean = mean;
+            moments.m2 = m2;
+        }
+        return moments;
+    }
+
+    /**
+     * Adds a price to the accumulator.
+     *
+     * @param price The price to add.
+     */
+    @Override
+    public void accept(double price) {
+        count++;
+        if (price < min) {
+            min = price;
+        }
+        if (price > max) {
+            max = price;
+        }
+        double delta = price - mean;
+        mean += delta / count;
+        m2 += delta * (price - mean);
+    }
+
+    /**
+     * Merges another accumulator into this one.
+     *
+     * @param other The accumulator to merge.
+     * @return this accumulator.
+     */
+    public PriceMoments merge(PriceMoments other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            min = other.min;
+            max = other.max;
+            mean = other.mean;
+            m2 = other.m2;
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Gets the number of accumulated prices.
+     *
+     * @return the number of prices.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the minimum accumulated price.
+     *
+     * @return the minimum price, or 0 if nothing was accumulated.
+     */
+    public double getMin() {
+        return count == 0 ? 0.0 : min;
+    }
+
+    /**
+     * Gets the maximum accumulated price.
+     *
+     * @return the maximum price, or 0 if nothing was accumulated.
+     */
+    public double getMax() {
+        return count == 0 ? 0.0 : max;
+    }
+
+    /**
+     * Gets the mean of the accumulated prices.
+     *
+     * @return the mean price, or 0 if nothing was accumulated.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Gets the population variance of the accumulated prices.
+     *
+     * @return the variance, or 0 if nothing was accumulated.
+     */
+    public double getVariance() {
+        return count == 0 ? 0.0 : m2 / count;
+    }
+
+    /**
+     * Converts the accumulated moments into car statistics.
+     *
+     * @return the statistics of the accumulated prices.
+     */
+    public CarStatistics toStatistics() {
+        return new CarStatistics(getMin(), getMax(), getMean(), Math.sqrt(getVariance()), count, 0);
+    }
+}
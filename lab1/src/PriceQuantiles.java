@@ -0,0 +1,241 @@
+import java.util.Arrays;
+
+/**
+ * Exact quantile engine over primitive price arrays.
+ * Single percentiles are found with introselect (quickselect with a median-of-three pivot that falls back to sorting
+ * when partitioning degenerates), which runs in O(n) expected time. The methods reorder the given range in place.
+ */
+public final class PriceQuantiles {
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private PriceQuantiles() {
+    }
+
+    /**
+     * Computes the exact IQR bounds and counts outliers.
+     * After Q1 and Q3 are selected, lower outliers can only lie before Q1 and upper outliers only after Q3,
+     * so counting scans just those two partitions instead of the whole range.
+     *
+     * @param prices The prices; the range is reordered in place.
+     * @param from   Index of the first price (inclusive).
+     * @param to     Index of the last price (exclusive).
+     * @return the IQR analysis of the range.
+     */
+    public static IqrResult iqr(double[] prices, int from, int to) {
+        int q1Index = percentileIndex(from, to, 25);
+        int q3Index = percentileIndex(from, to, 75);
+
+        double q1 = select(prices, from, to, q1Index);
+        double q3 = select(prices, q1Index, to, q3Index);
+        double lowerBound = IqrResult.lowerBound(q1, q3);
+        double upperBound = IqrResult.upperBound(q1, q3);
+
+        long outliers = PriceKernels.countOutside(prices, from, q1Index, lowerBound, Double.POSITIVE_INFINITY)
+                + PriceKernels.countOutside(prices, q3Index + 1, to, Double.NEGATIVE_INFINITY, upperBound);
+        return new IqrResult(q1, q3, (to - from) - outliers, outliers);
+    }
+
+    /**
+     * Computes the exact IQR bounds and counts outliers over the whole array.
+     *
+     * @param prices The prices; the array is reordered in place.
+     * @return the IQR analysis of the prices.
+     */
+    public static IqrResult iqr(double[] prices) {
+        return iqr(prices, 0, prices.length);
+    }
+
+    /**
+     * Finds a percentile as it would be read from the sorted range: the element at index
+     * {@code ceil(percentile / 100 * size) - 1}.
+     *
+     * @param prices     The prices; the range is reordered in place.
+     * @param from       Index of the first price (inclusive).
+     * @param to         Index of the last price (exclusive).
+     * @param percentile The desired percentile (e.g., 25 for Q1).
+     * @return the percentile value.
+     */
+    public static double percentile(double[] prices, int from, int to, double percentile) {
+        return select(prices, from, to, percentileIndex(from, to, percentile));
+    }
+
+    /**
+     * Finds several percentiles at once by fully sorting the range with {@link Arrays#parallelSort(double[], int, int)}.
+     * This is cheaper than repeated selection when many percentiles are needed.
+     *
+     * @param prices      The prices; the range is sorted in place.
+     * @param from        Index of the first price (inclusive).
+     * @param to          Index of the last price (exclusive).
+     * @param percentiles The desired percentiles.
+     * @return the percentile values in the order of the requested percentiles.
+     */
+    public static double[] percentiles(double[] prices, int from, int to, double... percentiles) {
+        Arrays.parallelSort(prices, from, to);
+        double[] values = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            values[i] = prices[percentileIndex(from, to, percentiles[i])];
+        }
+        return values;
+    }
+
+    /**
+     * Rearranges the range so that the element at index {@code k} is the one that would be there if the range were
+     * sorted, with no greater element before it and no smaller element after it.
+     *
+     * @param values The values; the range is reordered in place.
+     * @param from   Index of the first value (inclusive).
+     * @param to     Index of the last value (exclusive).
+     * @param k      Index of the element to select, within the range.
+     * @return the selected value.
+     */
+    public static double select(double[] values, int from, int to, int k) {
+        if (k < from || k >= to) {
+            throw new IndexOutOfBoundsException("Index " + k + " is outside of range [" + from + ", " + to + ")");
+        }
+        int left = from;
+        int right = to - 1;
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (right - left >= INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                Arrays.sort(values, left, right + 1);
+                return values[k];
+            }
+            int pivotIndex = medianOfThree(values, left, left + ((right - left) >>> 1), right);
+            double pivot = values[pivotIndex];
+
+            // Three-way partition: [left, lt) < pivot, [lt, gt] == pivot, (gt, right] > pivot
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                int comparison = Double.compare(values[i], pivot);
+                if (comparison < 0) {
+                    swap(values, lt++, i++);
+                } else if (comparison > 0) {
+                    swap(values, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (k < lt) {
+                right = lt - 1;
+            } else if (k > gt) {
+                left = gt + 1;
+            } else {
+                return values[k];
+            }
+        }
+        insertionSort(values, left, right);
+        return values[k];
+    }
+
+    /**
+     * Computes the index of a percentile within the range.
+     */
+    static int percentileIndex(int from, int to, double percentile) {
+        return from + (int) percentileIndex(to - from, percentile);
+    }
+
+    /**
+     * Computes the index of a percentile among the given number of sorted prices.
+     */
+    static long percentileIndex(long size, double percentile) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Cannot compute a percentile of an empty range");
+        }
+        long offset = (long) Math.ceil(percentile / 100.0 * size) - 1;
+        return Math.min(Math.max(offset, 0), size - 1);
+    }
+
+    /**
+     * Finds the first index of a sorted range whose price is not below the bound.
+     */
+    static int firstNotBelow(double[] sorted, int from, int to, double bound) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first index of a sorted range whose price is above the bound.
+     */
+    static int firstAbove(double[] sorted, int from, int to, double bound) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Maps a price to bits whose unsigned order is the order of the prices.
+     */
+    static long sortableBits(double price) {
+        long bits = Double.doubleToRawLongBits(price);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /**
+     * Maps bits produced by {@link #sortableBits(double)} back to the price.
+     */
+    static double priceOfBits(long sortable) {
+        return Double.longBitsToDouble(sortable ^ ((~sortable >> 63) | Long.MIN_VALUE));
+    }
+
+    /**
+     * Returns the index of the median of three elements.
+     */
+    private static int medianOfThree(double[] values, int a, int b, int c) {
+        double x = values[a];
+        double y = values[b];
+        double z = values[c];
+        if (Double.compare(x, y) < 0) {
+            if (Double.compare(y, z) < 0) {
+                return b;
+            }
+            return Double.compare(x, z) < 0 ? c : a;
+        }
+        if (Double.compare(x, z) < 0) {
+            return a;
+        }
+        return Double.compare(y, z) < 0 ? c : b;
+    }
+
+    /**
+     * Sorts a small inclusive range with insertion sort.
+     */
+    private static void insertionSort(double[] values, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            double value = values[i];
+            int j = i - 1;
+            while (j >= left && Double.compare(values[j], value) > 0) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    /**
+     * Swaps two elements of an array.
+     */
+    private static void swap(double[] values, int i, int j) {
+        double value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+}
@@ -0,0 +1,303 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.DoubleConsumer;
+
+/**
+ * KLL-style quantile sketch for car prices.
+ * The sketch keeps a bounded number of weighted samples arranged in levels (level {@code h} samples weigh {@code 2^h}),
+ * so percentiles and rank counts can be estimated in one pass over streams far larger than the heap.
+ * Sketches built over different stream segments can be merged.
+ */
+public class PriceSketch implements DoubleConsumer {
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_LEVEL_CAPACITY = 2;
+    private static final SplittableRandom SEEDS = new SplittableRandom();
+
+    private final int k;
+    private final SplittableRandom random;
+    private double[][] levels = new double[1][];
+    private int[] levelSizes = new int[1];
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Constructs a sketch with the given accuracy parameter.
+     * Every sketch draws its compaction offsets from its own generator split off a shared one, so the errors of
+     * sketches that are merged later stay independent.
+     *
+     * @param k Accuracy parameter; the top level keeps about {@code k} samples and the rank error shrinks roughly as 1/k.
+     */
+    public PriceSketch(int k) {
+        this(k, split());
+    }
+
+    /**
+     * Constructs a sketch whose compaction offsets are drawn from the given seed, for reproducible estimates.
+     * Sketches that will be merged need different seeds.
+     *
+     * @param k    Accuracy parameter; the top level keeps about {@code k} samples.
+     * @param seed Seed of the generator of compaction offsets.
+     */
+    public PriceSketch(int k, long seed) {
+        this(k, new SplittableRandom(seed));
+    }
+
+    /**
+     * Constructs a sketch drawing its compaction offsets from the given generator.
+     */
+    private PriceSketch(int k, SplittableRandom random) {
+        if (k < 8) {
+            throw new IllegalArgumentException("Sketch parameter k must be at least 8");
+        }
+        this.k = k;
+        this.random = random;
+        this.levels[0] = new double[levelCapacity(0)];
+    }
+
+    /**
+     * Splits a new generator off the shared one, which is not thread-safe on its own.
+     */
+    private static synchronized SplittableRandom split() {
+        return SEEDS.split();
+    }
+
+    /**
+     * Creates a sketch whose normalized rank error is about the given value.
+     *
+     * @param rankError Desired rank error as a fraction of the number of prices (e.g., 0.01 for 1%).
+     * @return a new empty sketch.
+     */
+    public static PriceSketch withRankError(double rankError) {
+        if (rankError <= 0 || rankError >= 1) {
+            throw new IllegalArgumentException("Rank error must be between 0 and 1");
+        }
+        return new PriceSketch(Math.max(8, (int) Math.ceil(Math.pow(2.296 / rankError, 1 / 0.9723))));
+    }
+
+    /**
+     * Adds a price to the sketch.
+     *
+     * @param price The price to add.
+     */
+    @Override
+    public void accept(double price) {
+        count++;
+        if (price < min) {
+            min = price;
+        }
+        if (price > max) {
+            max = price;
+        }
+        append(0, price);
+        if (levelSizes[0] >= levelCapacity(0)) {
+            compress();
+        }
+    }
+
+    /**
+     * Merges another sketch into this one.
+     *
+     * @param other The sketch to merge; must not be this sketch.
+     * @return this sketch.
+     */
+    public PriceSketch merge(PriceSketch other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge a sketch into itself");
+        }
+        if (other.count == 0) {
+            return this;
+        }
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.levelSizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        compress();
+        return this;
+    }
+
+    /**
+     * Estimates a percentile the same way an exact percentile is read from a sorted list:
+     * the smallest price whose rank reaches {@code ceil(percentile / 100 * count)}.
+     *
+     * @param percentile The desired percentile (e.g., 25 for Q1).
+     * @return the estimated percentile value.
+     */
+    public double percentile(double percentile) {
+        if (count == 0) {
+            throw new IllegalStateException("Sketch is empty");
+        }
+        int[] cursors = new int[levels.length];
+        for (int level = 0; level < levels.length; level++) {
+            Arrays.sort(levels[level], 0, levelSizes[level]);
+        }
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        double scale = (double) count / totalWeight();
+        double cumulative = 0;
+        while (true) {
+            int next = -1;
+            for (int level = 0; level < levels.length; level++) {
+                if (cursors[level] < levelSizes[level]
+                        && (next < 0 || levels[level][cursors[level]] < levels[next][cursors[next]])) {
+                    next = level;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            double value = levels[next][cursors[next]++];
+            cumulative += (1L << next) * scale;
+            if (cumulative >= target) {
+                return Math.min(Math.max(value, min), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Estimates the number of prices strictly below the given value.
+     *
+     * @param value The value to compare with.
+     * @return the estimated number of smaller prices.
+     */
+    public long countBelow(double value) {
+        if (count == 0 || value <= min) {
+            return 0;
+        }
+        if (value > max) {
+            return count;
+        }
+        return Math.round((double) weightWhere(value, true) * count / totalWeight());
+    }
+
+    /**
+     * Estimates the number of prices strictly above the given value.
+     *
+     * @param value The value to compare with.
+     * @return the estimated number of larger prices.
+     */
+    public long countAbove(double value) {
+        if (count == 0 || value >= max) {
+            return 0;
+        }
+        if (value < min) {
+            return count;
+        }
+        return Math.round((double) weightWhere(value, false) * count / totalWeight());
+    }
+
+    /**
+     * Gets the number of prices added to the sketch.
+     *
+     * @return the number of prices.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the accuracy parameter of the sketch.
+     *
+     * @return the accuracy parameter k.
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Gets the number of samples currently retained by the sketch.
+     *
+     * @return the number of retained samples.
+     */
+    public int getRetainedSize() {
+        int retained = 0;
+        for (int size : levelSizes) {
+            retained += size;
+        }
+        return retained;
+    }
+
+    /**
+     * Sums the weights of the samples below (or above) the given value.
+     */
+    private long weightWhere(double value, boolean below) {
+        long weight = 0;
+        for (int level = 0; level < levels.length; level++) {
+            double[] items = levels[level];
+            int matches = 0;
+            for (int i = 0; i < levelSizes[level]; i++) {
+                if (below ? items[i] < value : items[i] > value) {
+                    matches++;
+                }
+            }
+            weight += (long) matches << level;
+        }
+        return weight;
+    }
+
+    /**
+     * Sums the weights of all retained samples.
+     */
+    private long totalWeight() {
+        long weight = 0;
+        for (int level = 0; level < levels.length; level++) {
+            weight += (long) levelSizes[level] << level;
+        }
+        return weight;
+    }
+
+    /**
+     * Computes the capacity of a level; lower levels get geometrically smaller capacities.
+     */
+    private int levelCapacity(int level) {
+        int depth = levels.length - 1 - level;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    /**
+     * Appends a sample to a level, adding the missing levels up to it or growing its buffer when needed.
+     */
+    private void append(int level, double value) {
+        if (level >= levels.length) {
+            int oldLength = levels.length;
+            levels = Arrays.copyOf(levels, level + 1);
+            levelSizes = Arrays.copyOf(levelSizes, level + 1);
+            for (int added = oldLength; added <= level; added++) {
+                levels[added] = new double[MIN_LEVEL_CAPACITY];
+            }
+        }
+        double[] items = levels[level];
+        if (levelSizes[level] == items.length) {
+            items = Arrays.copyOf(items, items.length * 2);
+            levels[level] = items;
+        }
+        items[levelSizes[level]++] = value;
+    }
+
+    /**
+     * Compacts every level that exceeds its capacity by sorting it and promoting every other sample
+     * (starting at a random offset) to the next level with doubled weight.
+     */
+    private void compress() {
+        for (int level = 0; level < levels.length; level++) {
+            int size = levelSizes[level];
+            if (size < levelCapacity(level)) {
+                continue;
+            }
+            double[] items = levels[level];
+            int pairs = size / 2;
+            int kept = size - pairs * 2;
+            Arrays.sort(items, kept, size);
+            int offset = random.nextBoolean() ? 1 : 0;
+            for (int i = kept + offset; i < size; i += 2) {
+                append(level + 1, items[i]);
+            }
+            levelSizes[level] = kept;
+        }
+    }
+}
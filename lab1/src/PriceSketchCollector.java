@@ -0,0 +1,47 @@
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * A custom collector that summarizes car prices into a bounded-memory {@link PriceSketch}.
+ */
+public class PriceSketchCollector implements Collector<Car, PriceSketch, PriceSketch> {
+    private final double rankError;
+
+    /**
+     * Constructs a collector whose sketches have the given rank error.
+     *
+     * @param rankError Desired rank error as a fraction of the number of prices (e.g., 0.01 for 1%).
+     */
+    public PriceSketchCollector(double rankError) {
+        this.rankError = rankError;
+    }
+
+    @Override
+    public Supplier<PriceSketch> supplier() {
+        return () -> PriceSketch.withRankError(rankError);
+    }
+
+    @Override
+    public BiConsumer<PriceSketch, Car> accumulator() {
+        return (sketch, car) -> sketch.accept(car.getPrice());
+    }
+
+    @Override
+    public BinaryOperator<PriceSketch> combiner() {
+        return PriceSketch::merge;
+    }
+
+    @Override
+    public Function<PriceSketch, PriceSketch> finisher() {
+        return Function.identity();
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Set.of(Characteristics.IDENTITY_FINISH, Characteristics.UNORDERED);
+    }
+}
@@ -0,0 +1,581 @@
+import java.util.Arrays;
+
+/**
+ * First-in-first-out window of prices with incrementally maintained statistics.
+ * Adding and evicting a price updates the count, mean and sum of squared deviations with Welford's add and remove
+ * steps, and the minimum and maximum with monotonic queues, so each update costs amortized O(1).
+ * The running mean and M2 are re-anchored from the buffered prices once per window length of evictions, which keeps
+ * rounding errors from accumulating over an unbounded stream at an amortized O(1) cost.
+ * Outliers are counted either from an order-statistic tree of the window that is kept up to date on every update
+ * (O(log n) expected per update and per report), which suits sliding windows that are reported often,
+ * or by selection over the window when it is reported, which costs O(1) per price for tumbling windows.
+ */
+class PriceWindow {
+    private static final int MIN_CAPACITY = 16;
+
+    private final boolean sorted;
+    private double[] prices;
+    private long[] timestamps;
+    private int head;
+    private int size;
+    private long nextSequence;
+    private final MonotonicQueue minQueue = new MonotonicQueue(true);
+    private final MonotonicQueue maxQueue = new MonotonicQueue(false);
+    private double mean;
+    private double m2;
+    private long evictionsSinceAnchor;
+    private final OrderStatisticTree tree;
+    private double[] order = new double[0];
+
+    /**
+     * Constructs an empty window.
+     *
+     * @param capacity Expected number of prices in the window; the buffers grow beyond it when needed.
+     * @param sorted   Whether to keep an order-statistic tree of the window for outlier counting.
+     */
+    PriceWindow(int capacity, boolean sorted) {
+        int initialCapacity = Math.max(MIN_CAPACITY, capacity);
+        this.sorted = sorted;
+        this.prices = new double[initialCapacity];
+        this.timestamps = new long[initialCapacity];
+        this.tree = sorted ? new OrderStatisticTree() : null;
+    }
+
+    /**
+     * Adds a price at the end of the window.
+     *
+     * @param timestamp Logical timestamp of the price.
+     * @param price     The price to add.
+     */
+    void add(long timestamp, double price) {
+        if (size == prices.length) {
+            grow();
+        }
+        int index = index(size);
+        prices[index] = price;
+        timestamps[index] = timestamp;
+        size++;
+        long sequence = nextSequence++;
+        minQueue.push(sequence, price);
+        maxQueue.push(sequence, price);
+
+        double delta = price - mean;
+        mean += delta / size;
+        m2 += delta * (price - mean);
+
+        if (sorted) {
+            tree.add(price);
+        }
+    }
+
+    /**
+     * Removes the oldest price from the window.
+     */
+    void evictOldest() {
+        if (size == 0) {
+            throw new IllegalStateException("Cannot evict from an empty window");
+        }
+        double price = prices[head];
+        long sequence = nextSequence - size;
+        head = index(1);
+        size--;
+        minQueue.evict(sequence);
+        maxQueue.evict(sequence);
+
+        if (sorted) {
+            tree.remove(price);
+        }
+
+        if (size <= 1) {
+            mean = size == 0 ? 0 : prices[head];
+            m2 = 0;
+            evictionsSinceAnchor = 0;
+            return;
+        }
+        double delta = price - mean;
+        mean -= delta / size;
+        m2 -= delta * (price - mean);
+        if (++evictionsSinceAnchor >= Math.max(size, MIN_CAPACITY)) {
+            anchor();
+        }
+    }
+
+    /**
+     * Removes all prices from the window.
+     */
+    void clear() {
+        head = 0;
+        size = 0;
+        minQueue.clear();
+        maxQueue.clear();
+        if (sorted) {
+            tree.clear();
+        }
+        mean = 0;
+        m2 = 0;
+        evictionsSinceAnchor = 0;
+    }
+
+    /**
+     * Gets the number of prices in the window.
+     *
+     * @return the number of prices.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the timestamp of the oldest price in the window.
+     *
+     * @return the oldest timestamp.
+     */
+    long oldestTimestamp() {
+        if (size == 0) {
+            throw new IllegalStateException("Window is empty");
+        }
+        return timestamps[head];
+    }
+
+    /**
+     * Computes the statistics of the prices currently in the window, including the number of IQR outliers.
+     *
+     * @return the statistics of the window.
+     */
+    CarStatistics toStatistics() {
+        if (size == 0) {
+            return new CarStatistics(0, 0, 0, 0, 0, 0);
+        }
+        double stdDeviation = Math.sqrt(Math.max(m2, 0) / size);
+        return new CarStatistics(minQueue.peek(), maxQueue.peek(), mean, stdDeviation, size, countOutliers());
+    }
+
+    /**
+     * Counts the prices outside of the IQR outlier bounds of the window.
+     */
+    private long countOutliers() {
+        if (!sorted) {
+            if (order.length < size) {
+                order = new double[prices.length];
+            }
+            int firstPart = Math.min(size, prices.length - head);
+            System.arraycopy(prices, head, order, 0, firstPart);
+            System.arraycopy(prices, 0, order, firstPart, size - firstPart);
+            return PriceQuantiles.iqr(order, 0, size).getOutlierCount();
+        }
+        double q1 = tree.select(PriceQuantiles.percentileIndex(0, size, 25));
+        double q3 = tree.select(PriceQuantiles.percentileIndex(0, size, 75));
+        int below = tree.countBelow(IqrResult.lowerBound(q1, q3));
+        int notAbove = tree.countNotAbove(IqrResult.upperBound(q1, q3));
+        return below + (size - notAbove);
+    }
+
+    /**
+     * Recomputes the mean and M2 exactly from the buffered prices.
+     */
+    private void anchor() {
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += prices[index(i)];
+        }
+        double newMean = sum / size;
+        double newM2 = 0;
+        for (int i = 0; i < size; i++) {
+            double deviation = prices[index(i)] - newMean;
+            newM2 += deviation * deviation;
+        }
+        mean = newMean;
+        m2 = newM2;
+        evictionsSinceAnchor = 0;
+    }
+
+    /**
+     * Doubles the buffers, moving the window to the start of the new ring.
+     */
+    private void grow() {
+        int capacity = prices.length * 2;
+        double[] newPrices = new double[capacity];
+        long[] newTimestamps = new long[capacity];
+        int firstPart = prices.length - head;
+        System.arraycopy(prices, head, newPrices, 0, firstPart);
+        System.arraycopy(prices, 0, newPrices, firstPart, head);
+        System.arraycopy(timestamps, head, newTimestamps, 0, firstPart);
+        System.arraycopy(timestamps, 0, newTimestamps, firstPart, head);
+        prices = newPrices;
+        timestamps = newTimestamps;
+        head = 0;
+    }
+
+    /**
+     * Maps a position relative to the oldest price to an index of the ring.
+     */
+    private int index(int offset) {
+        int index = head + offset;
+        return index >= prices.length ? index - prices.length : index;
+    }
+
+    /**
+     * Queue of candidate extremes: prices in arrival order that are strictly better than every later price.
+     * The head is the extreme of the window; each price is pushed and popped at most once.
+     */
+    private static class MonotonicQueue {
+        private final boolean minimum;
+        private double[] values = new double[MIN_CAPACITY];
+        private long[] sequences = new long[MIN_CAPACITY];
+        private int head;
+        private int size;
+
+        /**
+         * Constructs an empty queue tracking the minimum or the maximum.
+         */
+        MonotonicQueue(boolean minimum) {
+            this.minimum = minimum;
+        }
+
+        /**
+         * Appends a price, dropping the candidates it dominates.
+         */
+        void push(long sequence, double value) {
+            while (size > 0) {
+                double last = values[index(size - 1)];
+                if (minimum ? last < value : last > value) {
+                    break;
+                }
+                size--;
+            }
+            if (size == values.length) {
+                grow();
+            }
+            int index = index(size);
+            values[index] = value;
+            sequences[index] = sequence;
+            size++;
+        }
+
+        /**
+         * Removes the head if it is the price with the given sequence number.
+         */
+        void evict(long sequence) {
+            if (size > 0 && sequences[head] == sequence) {
+                head = index(1);
+                size--;
+            }
+        }
+
+        /**
+         * Gets the extreme price of the window.
+         */
+        double peek() {
+            return values[head];
+        }
+
+        /**
+         * Removes all candidates.
+         */
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        /**
+         * Doubles the ring, moving the candidates to its start.
+         */
+        private void grow() {
+            int capacity = values.length * 2;
+            double[] newValues = new double[capacity];
+            long[] newSequences = new long[capacity];
+            int firstPart = values.length - head;
+            System.arraycopy(values, head, newValues, 0, firstPart);
+            System.arraycopy(values, 0, newValues, firstPart, head);
+            System.arraycopy(sequences, head, newSequences, 0, firstPart);
+            System.arraycopy(sequences, 0, newSequences, firstPart, head);
+            values = newValues;
+            sequences = newSequences;
+            head = 0;
+        }
+
+        /**
+         * Maps a position relative to the head to an index of the ring.
+         */
+        private int index(int offset) {
+            int index = head + offset;
+            return index >= values.length ? index - values.length : index;
+        }
+    }
+
+    /**
+     * Multiset of prices in a treap whose nodes store the number of equal prices and the size of their subtree,
+     * so adding, removing, selecting the k-th smallest price and counting prices below a bound take O(log n) expected.
+     * Nodes live in parallel arrays; slot 0 is the empty tree and removed nodes are reused through a free list.
+     */
+    private static class OrderStatisticTree {
+        private static final int NIL = 0;
+
+        private double[] keys = new double[MIN_CAPACITY];
+        private int[] counts = new int[MIN_CAPACITY];
+        private int[] sizes = new int[MIN_CAPACITY];
+        private int[] lefts = new int[MIN_CAPACITY];
+        private int[] rights = new int[MIN_CAPACITY];
+        private int[] priorities = new int[MIN_CAPACITY];
+        private int root = NIL;
+        private int nodes = 1;
+        private int free = NIL;
+        private int seed = 0x9E3779B9;
+        private int splitLeft;
+        private int splitRight;
+
+        /**
+         * Adds one occurrence of a price.
+         */
+        void add(double key) {
+            if (find(key) != NIL) {
+                adjust(key, 1);
+            } else {
+                root = insert(root, allocate(key));
+            }
+        }
+
+        /**
+         * Removes one occurrence of a price that is in the tree.
+         */
+        void remove(double key) {
+            int node = find(key);
+            if (node == NIL) {
+                throw new IllegalStateException("Price " + key + " is not in the window");
+            }
+            if (counts[node] > 1) {
+                adjust(key, -1);
+            } else {
+                root = erase(root, key);
+            }
+        }
+
+        /**
+         * Gets the price of the given zero-based rank in ascending order.
+         */
+        double select(int rank) {
+            int node = root;
+            while (true) {
+                int leftSize = sizes[lefts[node]];
+                if (rank < leftSize) {
+                    node = lefts[node];
+                } else if (rank < leftSize + counts[node]) {
+                    return keys[node];
+                } else {
+                    rank -= leftSize + counts[node];
+                    node = rights[node];
+                }
+            }
+        }
+
+        /**
+         * Counts the prices below the bound.
+         */
+        int countBelow(double bound) {
+            int count = 0;
+            int node = root;
+            while (node != NIL) {
+                if (keys[node] < bound) {
+                    count += sizes[lefts[node]] + counts[node];
+                    node = rights[node];
+                } else {
+                    node = lefts[node];
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Counts the prices not above the bound.
+         */
+        int countNotAbove(double bound) {
+            int count = 0;
+            int node = root;
+            while (node != NIL) {
+                if (keys[node] <= bound) {
+                    count += sizes[lefts[node]] + counts[node];
+                    node = rights[node];
+                } else {
+                    node = lefts[node];
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Removes all prices.
+         */
+        void clear() {
+            root = NIL;
+            nodes = 1;
+            free = NIL;
+        }
+
+        /**
+         * Finds the node of a price, or {@link #NIL} if the price is not in the tree.
+         */
+        private int find(double key) {
+            int node = root;
+            while (node != NIL) {
+                int comparison = Double.compare(key, keys[node]);
+                if (comparison == 0) {
+                    return node;
+                }
+                node = comparison < 0 ? lefts[node] : rights[node];
+            }
+            return NIL;
+        }
+
+        /**
+         * Changes the count of a price in the tree and the sizes of the subtrees on its path.
+         */
+        private void adjust(double key, int delta) {
+            int node = root;
+            while (true) {
+                sizes[node] += delta;
+                int comparison = Double.compare(key, keys[node]);
+                if (comparison == 0) {
+                    counts[node] += delta;
+                    return;
+                }
+                node = comparison < 0 ? lefts[node] : rights[node];
+            }
+        }
+
+        /**
+         * Inserts a new node into a subtree, rotating it up by priority through a split.
+         */
+        private int insert(int subtree, int node) {
+            if (subtree == NIL) {
+                return node;
+            }
+            if (priorities[node] > priorities[subtree]) {
+                split(subtree, keys[node]);
+                lefts[node] = splitLeft;
+                rights[node] = splitRight;
+                update(node);
+                return node;
+            }
+            if (Double.compare(keys[node], keys[subtree]) < 0) {
+                lefts[subtree] = insert(lefts[subtree], node);
+            } else {
+                rights[subtree] = insert(rights[subtree], node);
+            }
+            sizes[subtree]++;
+            return subtree;
+        }
+
+        /**
+         * Removes the node of a price from a subtree, merging its children in its place.
+         */
+        private int erase(int subtree, double key) {
+            int comparison = Double.compare(key, keys[subtree]);
+            if (comparison == 0) {
+                int merged = merge(lefts[subtree], rights[subtree]);
+                release(subtree);
+                return merged;
+            }
+            if (comparison < 0) {
+                lefts[subtree] = erase(lefts[subtree], key);
+            } else {
+                rights[subtree] = erase(rights[subtree], key);
+            }
+            sizes[subtree]--;
+            return subtree;
+        }
+
+        /**
+         * Splits a subtree into the prices below the key ({@code splitLeft}) and the rest ({@code splitRight}).
+         */
+        private void split(int subtree, double key) {
+            if (subtree == NIL) {
+                splitLeft = NIL;
+                splitRight = NIL;
+            } else if (Double.compare(keys[subtree], key) < 0) {
+                split(rights[subtree], key);
+                rights[subtree] = splitLeft;
+                update(subtree);
+                splitLeft = subtree;
+            } else {
+                split(lefts[subtree], key);
+                lefts[subtree] = splitRight;
+                update(subtree);
+                splitRight = subtree;
+            }
+        }
+
+        /**
+         * Merges two subtrees where every price of the first is below every price of the second.
+         */
+        private int merge(int left, int right) {
+            if (left == NIL) {
+                return right;
+            }
+            if (right == NIL) {
+                return left;
+            }
+            if (priorities[left] > priorities[right]) {
+                rights[left] = merge(rights[left], right);
+                update(left);
+                return left;
+            }
+            lefts[right] = merge(left, lefts[right]);
+            update(right);
+            return right;
+        }
+
+        /**
+         * Recomputes the subtree size of a node from its children.
+         */
+        private void update(int node) {
+            sizes[node] = sizes[lefts[node]] + counts[node] + sizes[rights[node]];
+        }
+
+        /**
+         * Takes a node from the free list or the end of the arrays and initializes it as a leaf.
+         */
+        private int allocate(double key) {
+            int node;
+            if (free != NIL) {
+                node = free;
+                free = lefts[node];
+            } else {
+                if (nodes == keys.length) {
+                    grow();
+                }
+                node = nodes++;
+            }
+            keys[node] = key;
+            counts[node] = 1;
+            sizes[node] = 1;
+            lefts[node] = NIL;
+            rights[node] = NIL;
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            priorities[node] = seed;
+            return node;
+        }
+
+        /**
+         * Returns a removed node to the free list.
+         */
+        private void release(int node) {
+            lefts[node] = free;
+            free = node;
+        }
+
+        /**
+         * Doubles the node arrays.
+         */
+        private void grow() {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+        }
+    }
+}
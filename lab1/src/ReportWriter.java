@@ -0,0 +1,482 @@
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Buffered writer of car reports: grouped car listings, price statistics and IQR results.
+ * Text is encoded straight into a reusable byte buffer that is drained to a {@link WritableByteChannel} only when full,
+ * and numbers are formatted digit by digit, so rendering a row allocates nothing.
+ * The output matches the {@code printf} based listings of {@link Main}, except that prices always use a dot as
+ * the decimal separator regardless of the default locale.
+ * Write failures are rethrown as {@link UncheckedIOException} so the writer can be used from stream lambdas.
+ */
+public class ReportWriter implements AutoCloseable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    /**
+     * Distance of the scaled price from a half cent below which the rounding is decided through {@link BigDecimal}.
+     */
+    private static final double TIE_TOLERANCE = 1e-3;
+    /**
+     * Magnitude from which prices are always formatted through {@link BigDecimal}. Scaling by 100 and the gap between
+     * a double and its shortest decimal form move the fraction by less than {@code 128 * Math.ulp(price)}, which stays
+     * below 2e-5 under 1e9, far inside {@link #TIE_TOLERANCE}; the old limit of 1e12 allowed errors beyond it.
+     */
+    private static final double FAST_PRICE_LIMIT = 1e9;
+
+    private final WritableByteChannel target;
+    private final boolean closeTarget;
+    private final byte[] buffer;
+    private final ByteBuffer view;
+    private final byte[] digits = new byte[20];
+    private int position;
+
+    /**
+     * Constructs a report writer over a channel with the default buffer size.
+     *
+     * @param target The channel to write the report to; it is closed together with the writer.
+     */
+    public ReportWriter(WritableByteChannel target) {
+        this(target, DEFAULT_BUFFER_SIZE, true);
+    }
+
+    /**
+     * Constructs a report writer over a channel.
+     *
+     * @param target      The channel to write the report to.
+     * @param bufferSize  Size of the buffer in bytes.
+     * @param closeTarget Whether closing the writer closes the channel.
+     */
+    public ReportWriter(WritableByteChannel target, int bufferSize, boolean closeTarget) {
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("Buffer size must be at least 64 bytes, got " + bufferSize);
+        }
+        this.target = target;
+        this.closeTarget = closeTarget;
+        this.buffer = new byte[bufferSize];
+        this.view = ByteBuffer.wrap(buffer);
+    }
+
+    /**
+     * Creates a writer to the standard output.
+     * Anything already printed through {@link System#out} is flushed before each drain of the buffer,
+     * and closing the writer flushes it without closing the standard output.
+     *
+     * @return a writer to the standard output.
+     */
+    public static ReportWriter stdout() {
+        return new ReportWriter(new StandardOutputChannel(), DEFAULT_BUFFER_SIZE, false);
+    }
+
+    /**
+     * Creates a writer to a file, replacing its content.
+     *
+     * @param path The path of the file.
+     * @return a writer to the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static ReportWriter toFile(Path path) throws IOException {
+        return new ReportWriter(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Creates a writer to a gzip compressed file, replacing its content.
+     * The fastest compression level is used, since deflating dominates the cost of writing large reports.
+     *
+     * @param path The path of the file.
+     * @return a writer to the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static ReportWriter toGzipFile(Path path) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(Files.newOutputStream(path), DEFAULT_BUFFER_SIZE) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        };
+        return new ReportWriter(Channels.newChannel(gzip));
+    }
+
+    /**
+     * Writes the cars grouped by class, each group under its own header.
+     *
+     * @param groups Cars grouped by car class.
+     * @return this writer.
+     */
+    public ReportWriter writeGroups(Map<String, ? extends Collection<Car>> groups) {
+        groups.forEach((carClass, cars) -> {
+            writeGroupHeader(carClass);
+            for (Car car : cars) {
+                writeCar(car);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Writes the header of a car class group.
+     *
+     * @param carClass The class of the cars in the group.
+     * @return this writer.
+     */
+    public ReportWriter writeGroupHeader(String carClass) {
+        return append('\n').append("Car Class: ").append(carClass).newLine();
+    }
+
+    /**
+     * Writes a listing line of a car.
+     *
+     * @param car The car to write.
+     * @return this writer.
+     */
+    public ReportWriter writeCar(Car car) {
+        return writeCar(car.getBrand(), car.getModel(), car.getManufactureDate().getYear(),
+                car.getPrice(), car.getCarClass());
+    }
+
+    /**
+     * Writes a listing line of the car in the given row of a table, without materializing a {@link Car}.
+     *
+     * @param cars The table of cars.
+     * @param row  Index of the row.
+     * @return this writer.
+     */
+    public ReportWriter writeCar(CarTable cars, int row) {
+        return writeCar(cars.getBrand(row), cars.getModel(row), cars.getManufactureYear(row),
+                cars.getPrice(row), cars.getCarClass(row));
+    }
+
+    /**
+     * Writes the price statistics.
+     *
+     * @param statistics The statistics to write.
+     * @return this writer.
+     */
+    public ReportWriter writeStatistics(CarStatistics statistics) {
+        append("\nMin price: ").appendPrice(statistics.getMinPrice()).append(" UAH");
+        append("\nMax price: ").appendPrice(statistics.getMaxPrice()).append(" UAH");
+        append("\nAverage price: ").appendPrice(statistics.getAvgPrice()).append(" UAH");
+        return append("\nStandard Deviation price: ").appendPrice(statistics.getStdDeviation()).append(" UAH");
+    }
+
+    /**
+     * Writes the number of data points and outliers of an IQR analysis.
+     *
+     * @param result The result to write.
+     * @return this writer.
+     */
+    public ReportWriter writeIqrResult(IqrResult result) {
+        append('\n').newLine();
+        append("data: ").append(result.getDataCount()).newLine();
+        return append("outliers: ").append(result.getOutlierCount()).newLine();
+    }
+
+    /**
+     * Writes selected percentiles of the price histogram of every group, one group per line.
+     *
+     * @param histograms  The histogram of each group, e.g. collected per class with {@link PriceHistogramCollector}.
+     * @param percentiles The percentiles to write (e.g., 50, 90, 99).
+     * @return this writer.
+     */
+    public ReportWriter writePercentiles(Map<String, PriceHistogram> histograms, double... percentiles) {
+        append('\n').newLine();
+        histograms.forEach((group, histogram) -> {
+            append(group).append(": ").append(histogram.getCount()).append(" cars");
+            for (double percentile : percentiles) {
+                append(", p").append(formatPercentile(percentile)).append(' ')
+                        .appendPrice(histogram.getCount() == 0 ? 0 : histogram.percentile(percentile));
+            }
+            append(" UAH").newLine();
+        });
+        return this;
+    }
+
+    /**
+     * Writes the throughput of each ingested source: cars and bytes read, elapsed time, cars per second and the time
+     * the source was blocked by a full ingestion queue.
+     *
+     * @param sources The statistics of the sources.
+     * @return this writer.
+     */
+    public ReportWriter writeSourceStatistics(Collection<SourceStatistics> sources) {
+        append('\n').newLine();
+        for (SourceStatistics source : sources) {
+            append("Source ").append(source.getName()).append(": ")
+                    .append(source.getCarCount()).append(" cars, ")
+                    .append(source.getByteCount()).append(" bytes in ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(source.getElapsedNanos())).append(" ms (")
+                    .append(Math.round(source.getCarsPerSecond())).append(" cars/s), blocked ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(source.getBlockedNanos())).append(" ms");
+            if (source.getFailure() != null) {
+                append(", failed: ").append(String.valueOf(source.getFailure().getMessage()));
+            }
+            newLine();
+        }
+        return this;
+    }
+
+    /**
+     * Writes the metrics of each pipeline stage: runs, elements, total time, throughput, allocated bytes and
+     * the median and 99th percentile latency.
+     *
+     * @param stages The metrics of the stages.
+     * @return this writer.
+     */
+    public ReportWriter writeStageMetrics(Collection<StageMetrics> stages) {
+        append('\n').newLine();
+        for (StageMetrics stage : stages) {
+            append("Stage ").append(stage.getStage()).append(": ")
+                    .append(stage.getRuns()).append(" runs, ")
+                    .append(stage.getElements()).append(" elements in ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(stage.getTotalNanos())).append(" ms (")
+                    .append(Math.round(stage.getElementsPerSecond())).append(" elements/s), allocated ")
+                    .append(stage.getAllocatedBytes()).append(" bytes, p50 ")
+                    .append(TimeUnit.NANOSECONDS.toMicros(stage.getLatencyP50Nanos())).append(" us, p99 ")
+                    .append(TimeUnit.NANOSECONDS.toMicros(stage.getLatencyP99Nanos())).append(" us")
+                    .newLine();
+        }
+        return this;
+    }
+
+    /**
+     * Appends a string encoded as UTF-8.
+     *
+     * @param value The string to append.
+     * @return this writer.
+     */
+    public ReportWriter append(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                ensure(1);
+                buffer[position++] = (byte) c;
+            } else {
+                i = appendNonAscii(value, i);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends an ASCII character.
+     *
+     * @param c The character to append.
+     * @return this writer.
+     */
+    public ReportWriter append(char c) {
+        if (c >= 0x80) {
+            return append(String.valueOf(c));
+        }
+        ensure(1);
+        buffer[position++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Appends a whole number in decimal.
+     *
+     * @param value The number to append.
+     * @return this writer.
+     */
+    public ReportWriter append(long value) {
+        ensure(digits.length);
+        if (value < 0) {
+            buffer[position++] = '-';
+        } else {
+            value = -value;
+        }
+        // Digits are produced from the negative value so that Long.MIN_VALUE needs no special case
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        int length = digits.length - start;
+        System.arraycopy(digits, start, buffer, position, length);
+        position += length;
+        return this;
+    }
+
+    /**
+     * Appends a price with exactly two decimals, rounded half up like {@code %.2f}.
+     * Like {@link java.util.Formatter}, the shortest decimal form of the price is rounded (so 1.005 becomes 1.01);
+     * prices whose rounding cannot be decided from the scaled double are formatted through {@link BigDecimal}.
+     *
+     * @param price The price to append.
+     * @return this writer.
+     */
+    public ReportWriter appendPrice(double price) {
+        if (Double.isNaN(price)) {
+            return append("NaN");
+        }
+        if (Double.isInfinite(price)) {
+            return append(price < 0 ? "-Infinity" : "Infinity");
+        }
+        double magnitude = Math.abs(price);
+        if (magnitude >= FAST_PRICE_LIMIT) {
+            return append(BigDecimal.valueOf(price).setScale(2, RoundingMode.HALF_UP).toPlainString());
+        }
+        double scaled = magnitude * 100;
+        double whole = Math.floor(scaled);
+        double fraction = scaled - whole;
+        long cents;
+        if (Math.abs(fraction - 0.5) < TIE_TOLERANCE) {
+            // Too close to a tie for the scaled double to tell, so round the shortest decimal form like Formatter does
+            cents = BigDecimal.valueOf(magnitude).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } else {
+            cents = (long) whole + (fraction > 0.5 ? 1 : 0);
+        }
+        if (price < 0 || (price == 0 && 1 / price < 0)) {
+            append('-');
+        }
+        append(cents / 100).append('.');
+        ensure(2);
+        int hundredths = (int) (cents % 100);
+        buffer[position++] = (byte) ('0' + hundredths / 10);
+        buffer[position++] = (byte) ('0' + hundredths % 10);
+        return this;
+    }
+
+    /**
+     * Appends the platform line separator.
+     *
+     * @return this writer.
+     */
+    public ReportWriter newLine() {
+        ensure(LINE_SEPARATOR.length);
+        System.arraycopy(LINE_SEPARATOR, 0, buffer, position, LINE_SEPARATOR.length);
+        position += LINE_SEPARATOR.length;
+        return this;
+    }
+
+    /**
+     * Writes the buffered bytes to the target channel.
+     *
+     * @return this writer.
+     */
+    public ReportWriter flush() {
+        view.clear().limit(position);
+        try {
+            while (view.hasRemaining()) {
+                target.write(view);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write report", e);
+        }
+        position = 0;
+        return this;
+    }
+
+    /**
+     * Flushes the buffer and closes the target channel if the writer owns it.
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            if (closeTarget) {
+                try {
+                    target.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to close report", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a listing line from the car's values.
+     */
+    private ReportWriter writeCar(String brand, String model, int year, double price, String carClass) {
+        append("\tCar: ").append(brand).append(" - ").append(model);
+        append(", year - ").append(year);
+        append(", price - ").appendPrice(price).append(" UAH");
+        return append(", class - ").append(carClass).newLine();
+    }
+
+    /**
+     * Formats a percentile without a fraction when it is a whole number.
+     */
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+
+    /**
+     * Encodes the non-ASCII character at the index as UTF-8 and returns the index of its last char.
+     */
+    private int appendNonAscii(String value, int index) {
+        ensure(4);
+        char c = value.charAt(index);
+        if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (c >> 6));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            return index;
+        }
+        if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            return index + 1;
+        }
+        if (Character.isSurrogate(c)) {
+            buffer[position++] = '?';
+            return index;
+        }
+        buffer[position++] = (byte) (0xE0 | (c >> 12));
+        buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        return index;
+    }
+
+    /**
+     * Drains the buffer if fewer than the given number of bytes are free.
+     */
+    private void ensure(int bytes) {
+        if (buffer.length - position < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Channel to the standard output that keeps it open and stays ordered with {@link System#out}.
+     */
+    private static class StandardOutputChannel implements WritableByteChannel {
+        private final FileChannel channel = new FileOutputStream(FileDescriptor.out).getChannel();
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            System.out.flush();
+            return channel.write(source);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,576 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Compressed set of row indexes in the style of Roaring bitmaps.
+ * Rows are partitioned by their upper 16 bits into chunks of 65536 rows, and each non-empty chunk is stored in the
+ * container that suits its density: a sorted array of the lower 16 bits for up to 4096 rows (2 bytes per row), or
+ * a plain 8 KB bitmap above that. Sparse sets stay small, dense sets cost at most one bit per row, and AND, OR and
+ * AND NOT work chunk by chunk, with word-wide operations on bitmap containers and merges on array containers.
+ * Rows can be added in any order, although appending increasing rows is the fast path used when indexing a table.
+ * The set operations return new bitmaps and leave their operands unchanged.
+ */
+public class RowBitmap {
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    /**
+     * Creates a bitmap of the given rows.
+     *
+     * @param rows The row indexes.
+     * @return a new bitmap.
+     */
+    public static RowBitmap of(int... rows) {
+        RowBitmap bitmap = new RowBitmap();
+        for (int row : rows) {
+            bitmap.add(row);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Creates a bitmap of a contiguous range of rows.
+     *
+     * @param from Index of the first row (inclusive).
+     * @param to   Index of the last row (exclusive).
+     * @return a new bitmap.
+     */
+    public static RowBitmap range(int from, int to) {
+        if (from < 0 || from > to) {
+            throw new IllegalArgumentException("Invalid row range [" + from + ", " + to + ")");
+        }
+        RowBitmap bitmap = new RowBitmap();
+        int row = from;
+        while (row < to) {
+            int chunkEnd = (int) Math.min(to, ((long) (row >>> 16) + 1) << 16);
+            int count = chunkEnd - row;
+            Container container;
+            if (count <= ARRAY_LIMIT) {
+                ArrayContainer array = new ArrayContainer(count);
+                for (int i = 0; i < count; i++) {
+                    array.values[i] = (char) (row + i);
+                }
+                array.cardinality = count;
+                container = array;
+            } else {
+                BitmapContainer bits = new BitmapContainer();
+                for (int low = row & 0xFFFF, end = low + count; low < end; low++) {
+                    bits.words[low >>> 6] |= 1L << low;
+                }
+                bits.cardinality = count;
+                container = bits;
+            }
+            bitmap.append((char) (row >>> 16), container);
+            row = chunkEnd;
+        }
+        return bitmap;
+    }
+
+    /**
+     * Adds a row to the bitmap.
+     *
+     * @param row The row index, not negative.
+     */
+    public void add(int row) {
+        if (row < 0) {
+            throw new IllegalArgumentException("Row index must not be negative, got " + row);
+        }
+        char key = (char) (row >>> 16);
+        int index;
+        if (size > 0 && keys[size - 1] == key) {
+            index = size - 1;
+        } else {
+            index = size == 0 || keys[size - 1] < key ? -(size + 1) : Arrays.binarySearch(keys, 0, size, key);
+            if (index < 0) {
+                index = -index - 1;
+                insert(index, key, new ArrayContainer(4));
+            }
+        }
+        containers[index] = containers[index].add((char) row);
+    }
+
+    /**
+     * Checks whether the bitmap contains a row.
+     *
+     * @param row The row index.
+     * @return {@code true} if the row is in the bitmap.
+     */
+    public boolean contains(int row) {
+        if (row < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, (char) (row >>> 16));
+        return index >= 0 && containers[index].contains((char) row);
+    }
+
+    /**
+     * Gets the number of rows in the bitmap.
+     *
+     * @return the number of rows.
+     */
+    public int getCardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Checks whether the bitmap has no rows.
+     *
+     * @return {@code true} if the bitmap is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Estimates the memory used by the containers.
+     *
+     * @return the approximate size in bytes.
+     */
+    public long getSizeInBytes() {
+        long bytes = (long) keys.length * Character.BYTES;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i] instanceof BitmapContainer
+                    ? (long) BITMAP_WORDS * Long.BYTES
+                    : (long) ((ArrayContainer) containers[i]).values.length * Character.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Computes the rows that are in both bitmaps.
+     *
+     * @param other The other bitmap.
+     * @return a new bitmap with the intersection.
+     */
+    public RowBitmap and(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality > 0) {
+                    result.append(keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the rows that are in either bitmap.
+     *
+     * @param other The other bitmap.
+     * @return a new bitmap with the union.
+     */
+    public RowBitmap or(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the rows of this bitmap that are not in the other one.
+     *
+     * @param other The bitmap of rows to remove.
+     * @return a new bitmap with the difference.
+     */
+    public RowBitmap andNot(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container container = j < other.size && other.keys[j] == keys[i]
+                    ? containers[i].andNot(other.containers[j])
+                    : containers[i].copy();
+            if (container.cardinality > 0) {
+                result.append(keys[i], container);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the union of several bitmaps.
+     *
+     * @param bitmaps The bitmaps to combine.
+     * @return a new bitmap with the rows of any of the bitmaps.
+     */
+    public static RowBitmap or(Iterable<RowBitmap> bitmaps) {
+        RowBitmap result = new RowBitmap();
+        for (RowBitmap bitmap : bitmaps) {
+            result = result.or(bitmap);
+        }
+        return result;
+    }
+
+    /**
+     * Passes every row to the consumer in increasing order.
+     *
+     * @param consumer The consumer of the rows.
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    /**
+     * Lists the rows in increasing order.
+     *
+     * @return a new array of the row indexes.
+     */
+    public int[] toArray() {
+        int[] rows = new int[getCardinality()];
+        int[] position = new int[1];
+        forEach(row -> rows[position[0]++] = row);
+        return rows;
+    }
+
+    /**
+     * Streams the rows in increasing order.
+     *
+     * @return a stream of the row indexes.
+     */
+    public IntStream stream() {
+        return Arrays.stream(toArray());
+    }
+
+    /**
+     * Appends a container whose key is larger than all present keys.
+     */
+    private void append(char key, Container container) {
+        insert(size, key, container);
+    }
+
+    /**
+     * Inserts a container at the given position of the key array.
+     */
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    /**
+     * Set of the lower 16 bits of the rows of one chunk.
+     */
+    private abstract static class Container {
+        int cardinality;
+
+        /**
+         * Adds a value, returning the container that holds the result (this one or a converted one).
+         */
+        abstract Container add(char value);
+
+        /**
+         * Checks whether the container holds a value.
+         */
+        abstract boolean contains(char value);
+
+        /**
+         * Intersects with another container into a new container.
+         */
+        abstract Container and(Container other);
+
+        /**
+         * Unites with another container into a new container.
+         */
+        abstract Container or(Container other);
+
+        /**
+         * Removes the values of another container into a new container.
+         */
+        abstract Container andNot(Container other);
+
+        /**
+         * Copies the container.
+         */
+        abstract Container copy();
+
+        /**
+         * Passes every value, offset by the chunk base, to the consumer in increasing order.
+         */
+        abstract void forEach(int base, IntConsumer consumer);
+    }
+
+    /**
+     * Container of up to {@link #ARRAY_LIMIT} values kept as a sorted array.
+     */
+    private static final class ArrayContainer extends Container {
+        char[] values;
+
+        /**
+         * Constructs an empty container with room for the given number of values.
+         */
+        ArrayContainer(int capacity) {
+            values = new char[capacity];
+        }
+
+        @Override
+        Container add(char value) {
+            int index = cardinality > 0 && values[cardinality - 1] < value
+                    ? -(cardinality + 1)
+                    : Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container and(Container other) {
+            ArrayContainer result = new ArrayContainer(cardinality);
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result.values[result.cardinality++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result.values[result.cardinality++] = values[i];
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            if (cardinality + array.cardinality > ARRAY_LIMIT) {
+                return toBitmap().or(array);
+            }
+            ArrayContainer result = new ArrayContainer(cardinality + array.cardinality);
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                char value;
+                if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                    value = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    value = array.values[j++];
+                } else {
+                    value = values[i++];
+                    j++;
+                }
+                result.values[result.cardinality++] = value;
+            }
+            return result;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            ArrayContainer result = new ArrayContainer(cardinality);
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    result.values[result.cardinality++] = values[i];
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            ArrayContainer result = new ArrayContainer(cardinality);
+            System.arraycopy(values, 0, result.values, 0, cardinality);
+            result.cardinality = cardinality;
+            return result;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(base | values[i]);
+            }
+        }
+
+        /**
+         * Converts the container into a bitmap container.
+         */
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.words[values[i] >>> 6] |= 1L << values[i];
+            }
+            bitmap.cardinality = cardinality;
+            return bitmap;
+        }
+    }
+
+    /**
+     * Container of more than {@link #ARRAY_LIMIT} values kept as a bitmap of 65536 bits.
+     */
+    private static final class BitmapContainer extends Container {
+        final long[] words = new long[BITMAP_WORDS];
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            int word = value >>> 6;
+            if ((words[word] & bit) == 0) {
+                words[word] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            BitmapContainer bitmap = (BitmapContainer) other;
+            BitmapContainer result = new BitmapContainer();
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result.words[i] = words[i] & bitmap.words[i];
+                result.cardinality += Long.bitCount(result.words[i]);
+            }
+            return result.shrink();
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer result = new BitmapContainer();
+            System.arraycopy(words, 0, result.words, 0, BITMAP_WORDS);
+            if (other instanceof ArrayContainer array) {
+                result.cardinality = cardinality;
+                for (int i = 0; i < array.cardinality; i++) {
+                    result.add(array.values[i]);
+                }
+                return result;
+            }
+            BitmapContainer bitmap = (BitmapContainer) other;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result.words[i] |= bitmap.words[i];
+                result.cardinality += Long.bitCount(result.words[i]);
+            }
+            return result;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            BitmapContainer result = new BitmapContainer();
+            System.arraycopy(words, 0, result.words, 0, BITMAP_WORDS);
+            if (other instanceof ArrayContainer array) {
+                result.cardinality = cardinality;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char value = array.values[i];
+                    long bit = 1L << value;
+                    if ((result.words[value >>> 6] & bit) != 0) {
+                        result.words[value >>> 6] &= ~bit;
+                        result.cardinality--;
+                    }
+                }
+            } else {
+                BitmapContainer bitmap = (BitmapContainer) other;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result.words[i] &= ~bitmap.words[i];
+                    result.cardinality += Long.bitCount(result.words[i]);
+                }
+            }
+            return result.shrink();
+        }
+
+        @Override
+        Container copy() {
+            BitmapContainer result = new BitmapContainer();
+            System.arraycopy(words, 0, result.words, 0, BITMAP_WORDS);
+            result.cardinality = cardinality;
+            return result;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        /**
+         * Converts the container into an array container if it holds few enough values.
+         */
+        Container shrink() {
+            if (cardinality > ARRAY_LIMIT) {
+                return this;
+            }
+            ArrayContainer array = new ArrayContainer(cardinality);
+            forEach(0, value -> array.values[array.cardinality++] = (char) value);
+            return array;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Plain loop implementation of the price aggregation kernels, used when the Vector API is unavailable.
+ * Segment variants read little-endian {@code double} columns as written by {@link CarDatasetFile}.
+ */
+class ScalarPriceKernels {
+
+    long countOutside(double[] prices, int from, int to, double lowerBound, double upperBound) {
+        long count = 0;
+        for (int i = from; i < to; i++) {
+            if (prices[i] < lowerBound || prices[i] > upperBound) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    long countOutside(MemorySegment prices, long count, double lowerBound, double upperBound) {
+        long outside = 0;
+        for (long i = 0; i < count; i++) {
+            double price = prices.getAtIndex(CarDatasetFile.DOUBLE, i);
+            if (price < lowerBound || price > upperBound) {
+                outside++;
+            }
+        }
+        return outside;
+    }
+
+    /**
+     * Computes count, minimum, maximum, mean and M2 in a single pass. Sums are taken of the deviations from the first
+     * price, which keeps {@code sum of squares - sum^2 / n} accurate since prices cluster around their mean.
+     */
+    PriceMoments moments(double[] prices, int from, int to) {
+        if (from == to) {
+            return new PriceMoments();
+        }
+        double shift = prices[from];
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int i = from; i < to; i++) {
+            double price = prices[i];
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+            double deviation = price - shift;
+            sum += deviation;
+            sumOfSquares += deviation * deviation;
+        }
+        return shiftedMoments(to - from, min, max, shift, sum, sumOfSquares);
+    }
+
+    PriceMoments moments(MemorySegment prices, long count) {
+        if (count == 0) {
+            return new PriceMoments();
+        }
+        double shift = prices.getAtIndex(CarDatasetFile.DOUBLE, 0);
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (long i = 0; i < count; i++) {
+            double price = prices.getAtIndex(CarDatasetFile.DOUBLE, i);
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+            double deviation = price - shift;
+            sum += deviation;
+            sumOfSquares += deviation * deviation;
+        }
+        return shiftedMoments(count, min, max, shift, sum, sumOfSquares);
+    }
+
+    /**
+     * Builds moments from the sum and sum of squares of the deviations from {@code shift}.
+     */
+    static PriceMoments shiftedMoments(long count, double min, double max, double shift, double sum,
+                                       double sumOfSquares) {
+        double meanDeviation = sum / count;
+        return PriceMoments.of(count, min, max, shift + meanDeviation,
+                Math.max(sumOfSquares - sum * meanDeviation, 0));
+    }
+
+    /**
+     * Gets a short description of the implementation.
+     */
+    String describe() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Throughput counters of one {@link CarSource} of a {@link CarIngestion}.
+ * The counters are written only by the thread reading the source and can be read at any time from other threads.
+ */
+public class SourceStatistics {
+    private final String name;
+    private volatile long carCount;
+    private volatile long byteCount;
+    private volatile long batchCount;
+    private volatile long blockedNanos;
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile boolean started;
+    private volatile boolean finished;
+    private volatile Throwable failure;
+
+    /**
+     * Constructs empty counters of a source.
+     *
+     * @param name Name of the source.
+     */
+    SourceStatistics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Marks the start of reading.
+     */
+    void start() {
+        startNanos = System.nanoTime();
+        started = true;
+    }
+
+    /**
+     * Counts a batch delivered to the ingestion queue.
+     *
+     * @param cars         Number of cars in the batch.
+     * @param bytes        Number of source bytes of the batch.
+     * @param blockedNanos Time spent waiting for space in the queue.
+     */
+    void recordBatch(int cars, long bytes, long blockedNanos) {
+        this.carCount += cars;
+        this.byteCount += bytes;
+        this.batchCount++;
+        this.blockedNanos += blockedNanos;
+    }
+
+    /**
+     * Marks the end of reading.
+     *
+     * @param failure The error that stopped reading, or {@code null} if the source was read completely.
+     */
+    void finish(Throwable failure) {
+        this.failure = failure;
+        this.endNanos = System.nanoTime();
+        this.finished = true;
+    }
+
+    /**
+     * Gets the name of the source.
+     *
+     * @return the name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of cars read so far.
+     *
+     * @return the number of cars.
+     */
+    public long getCarCount() {
+        return carCount;
+    }
+
+    /**
+     * Gets the number of bytes read so far.
+     *
+     * @return the number of bytes.
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Gets the number of batches delivered so far.
+     *
+     * @return the number of batches.
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Gets the time the source spent waiting for the consumer because the ingestion queue was full.
+     *
+     * @return the time blocked by backpressure in nanoseconds.
+     */
+    public long getBlockedNanos() {
+        return blockedNanos;
+    }
+
+    /**
+     * Gets the time from the start of reading until it finished, or until now while it is still running.
+     *
+     * @return the elapsed time in nanoseconds, or 0 if reading has not started.
+     */
+    public long getElapsedNanos() {
+        if (!started) {
+            return 0;
+        }
+        return (finished ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * Gets the average number of cars read per second.
+     *
+     * @return the throughput in cars per second.
+     */
+    public double getCarsPerSecond() {
+        long elapsed = getElapsedNanos();
+        return elapsed == 0 ? 0 : carCount * 1e9 / elapsed;
+    }
+
+    /**
+     * Checks whether reading has finished, successfully or not.
+     *
+     * @return {@code true} if the source is no longer read.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Gets the error that stopped reading.
+     *
+     * @return the error, or {@code null} if there was none.
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulated metrics of one car pipeline stage: runs, elements, time, allocated bytes and a latency histogram
+ * with one bucket per power of two nanoseconds. Runs can be recorded concurrently from any thread.
+ */
+public class StageMetrics implements StageMetricsMXBean {
+    private static final int BUCKETS = 64;
+
+    private final String stage;
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder elements = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Constructs empty metrics of a stage.
+     *
+     * @param stage Name of the stage.
+     */
+    StageMetrics(String stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Records one completed run of the stage.
+     *
+     * @param nanos          Wall-clock time of the run.
+     * @param elementCount   Number of elements the run produced.
+     * @param allocatedCount Bytes allocated during the run.
+     */
+    void record(long nanos, long elementCount, long allocatedCount) {
+        long latency = Math.max(nanos, 0);
+        runs.increment();
+        elements.add(elementCount);
+        totalNanos.add(latency);
+        allocatedBytes.add(allocatedCount);
+        maxNanos.accumulate(latency);
+        latencyBuckets.incrementAndGet(bucket(latency));
+    }
+
+    @Override
+    public String getStage() {
+        return stage;
+    }
+
+    @Override
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    @Override
+    public long getElements() {
+        return elements.sum();
+    }
+
+    @Override
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    @Override
+    public double getElementsPerSecond() {
+        long nanos = getTotalNanos();
+        return nanos == 0 ? 0 : getElements() * 1e9 / nanos;
+    }
+
+    @Override
+    public long getLatencyP50Nanos() {
+        return latencyPercentile(50);
+    }
+
+    @Override
+    public long getLatencyP99Nanos() {
+        return latencyPercentile(99);
+    }
+
+    @Override
+    public long getLatencyMaxNanos() {
+        return maxNanos.get();
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = latencyBuckets.get(i);
+        }
+        return histogram;
+    }
+
+    /**
+     * Estimates a latency percentile as the upper bound of the bucket holding it, capped by the maximum.
+     */
+    private long latencyPercentile(double percentile) {
+        long[] histogram = getLatencyHistogram();
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += histogram[i];
+            if (cumulative >= target) {
+                long upperBound = i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Math.min(upperBound, getLatencyMaxNanos());
+            }
+        }
+        return getLatencyMaxNanos();
+    }
+
+    /**
+     * Gets the power-of-two bucket of a latency.
+     */
+    private static int bucket(long nanos) {
+        return nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+}
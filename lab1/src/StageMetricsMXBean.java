@@ -0,0 +1,77 @@
+/**
+ * Management interface of the metrics of one car pipeline stage, registered by {@link PipelineMetrics}
+ * under {@code lab1:type=PipelineStage,name=<stage>}.
+ */
+public interface StageMetricsMXBean {
+
+    /**
+     * Gets the name of the stage.
+     *
+     * @return the stage name.
+     */
+    String getStage();
+
+    /**
+     * Gets the number of completed runs of the stage.
+     *
+     * @return the number of runs.
+     */
+    long getRuns();
+
+    /**
+     * Gets the total number of elements produced by all runs.
+     *
+     * @return the number of elements.
+     */
+    long getElements();
+
+    /**
+     * Gets the total wall-clock time of all runs.
+     *
+     * @return the time in nanoseconds.
+     */
+    long getTotalNanos();
+
+    /**
+     * Gets the total number of bytes allocated by the threads running the stage.
+     *
+     * @return the allocated bytes, or 0 if allocation measurement is not supported.
+     */
+    long getAllocatedBytes();
+
+    /**
+     * Gets the average throughput over all runs.
+     *
+     * @return the number of elements per second.
+     */
+    double getElementsPerSecond();
+
+    /**
+     * Gets the upper bound of the median run latency.
+     *
+     * @return the latency in nanoseconds.
+     */
+    long getLatencyP50Nanos();
+
+    /**
+     * Gets the upper bound of the 99th percentile run latency.
+     *
+     * @return the latency in nanoseconds.
+     */
+    long getLatencyP99Nanos();
+
+    /**
+     * Gets the longest run latency.
+     *
+     * @return the latency in nanoseconds.
+     */
+    long getLatencyMaxNanos();
+
+    /**
+     * Gets the latency histogram: element {@code i} counts the runs that took from {@code 2^i} to
+     * {@code 2^(i+1) - 1} nanoseconds.
+     *
+     * @return the run counts per power-of-two latency bucket.
+     */
+    long[] getLatencyHistogram();
+}
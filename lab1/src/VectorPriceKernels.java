@@ -0,0 +1,120 @@
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteOrder;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of the price aggregation kernels on top of the incubating Vector API.
+ * The widest species supported by the CPU is chosen at runtime; leftover elements are handled by scalar tails.
+ * This class is only loaded by {@link PriceKernels} when the {@code jdk.incubator.vector} module is present.
+ */
+class VectorPriceKernels extends ScalarPriceKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    @Override
+    long countOutside(double[] prices, int from, int to, double lowerBound, double upperBound) {
+        long count = 0;
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(SPECIES, prices, i);
+            VectorMask<Double> outside = vector.lt(lowerBound).or(vector.compare(VectorOperators.GT, upperBound));
+            count += outside.trueCount();
+        }
+        return count + super.countOutside(prices, i, to, lowerBound, upperBound);
+    }
+
+    @Override
+    long countOutside(MemorySegment prices, long count, double lowerBound, double upperBound) {
+        long outside = 0;
+        long i = 0;
+        for (long bound = SPECIES.loopBound(count); i < bound; i += SPECIES.length()) {
+            DoubleVector vector = DoubleVector.fromMemorySegment(SPECIES, prices, i * Double.BYTES, ORDER);
+            outside += vector.lt(lowerBound).or(vector.compare(VectorOperators.GT, upperBound)).trueCount();
+        }
+        return outside + super.countOutside(tail(prices, i), count - i, lowerBound, upperBound);
+    }
+
+    @Override
+    PriceMoments moments(double[] prices, int from, int to) {
+        if (from == to) {
+            return new PriceMoments();
+        }
+        double shift = prices[from];
+        DoubleVector min = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        DoubleVector max = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        DoubleVector sumOfSquares = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(SPECIES, prices, i);
+            min = min.min(vector);
+            max = max.max(vector);
+            DoubleVector deviation = vector.sub(shift);
+            sum = sum.add(deviation);
+            sumOfSquares = deviation.fma(deviation, sumOfSquares);
+        }
+        double minPrice = min.reduceLanes(VectorOperators.MIN);
+        double maxPrice = max.reduceLanes(VectorOperators.MAX);
+        double sumOfDeviations = sum.reduceLanes(VectorOperators.ADD);
+        double sumOfSquaredDeviations = sumOfSquares.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            double price = prices[i];
+            minPrice = Math.min(minPrice, price);
+            maxPrice = Math.max(maxPrice, price);
+            double deviation = price - shift;
+            sumOfDeviations += deviation;
+            sumOfSquaredDeviations += deviation * deviation;
+        }
+        return shiftedMoments(to - from, minPrice, maxPrice, shift, sumOfDeviations, sumOfSquaredDeviations);
+    }
+
+    @Override
+    PriceMoments moments(MemorySegment prices, long count) {
+        if (count == 0) {
+            return new PriceMoments();
+        }
+        double shift = prices.getAtIndex(CarDatasetFile.DOUBLE, 0);
+        DoubleVector min = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        DoubleVector max = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        DoubleVector sumOfSquares = DoubleVector.zero(SPECIES);
+        long i = 0;
+        for (long bound = SPECIES.loopBound(count); i < bound; i += SPECIES.length()) {
+            DoubleVector vector = DoubleVector.fromMemorySegment(SPECIES, prices, i * Double.BYTES, ORDER);
+            min = min.min(vector);
+            max = max.max(vector);
+            DoubleVector deviation = vector.sub(shift);
+            sum = sum.add(deviation);
+            sumOfSquares = deviation.fma(deviation, sumOfSquares);
+        }
+        double minPrice = min.reduceLanes(VectorOperators.MIN);
+        double maxPrice = max.reduceLanes(VectorOperators.MAX);
+        double sumOfDeviations = sum.reduceLanes(VectorOperators.ADD);
+        double sumOfSquaredDeviations = sumOfSquares.reduceLanes(VectorOperators.ADD);
+        for (; i < count; i++) {
+            double price = prices.getAtIndex(CarDatasetFile.DOUBLE, i);
+            minPrice = Math.min(minPrice, price);
+            maxPrice = Math.max(maxPrice, price);
+            double deviation = price - shift;
+            sumOfDeviations += deviation;
+            sumOfSquaredDeviations += deviation * deviation;
+        }
+        return shiftedMoments(count, minPrice, maxPrice, shift, sumOfDeviations, sumOfSquaredDeviations);
+    }
+
+    @Override
+    String describe() {
+        return "vector " + SPECIES;
+    }
+
+    /**
+     * Slices off the elements already processed by the vector loop.
+     */
+    private static MemorySegment tail(MemorySegment prices, long processed) {
+        return prices.asSlice(processed * Double.BYTES);
+    }
+}